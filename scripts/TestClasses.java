@@ -0,0 +1,23 @@
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Runs a main class from target/test-classes on top of the application class path. The
+ * directory goes through its own class loader instead of -cp, so a CDS archive dumped from
+ * the run stays valid for the application jar alone.
+ *
+ *   java -cp <jar> scripts/TestClasses.java <main class> [args...]
+ */
+public class TestClasses {
+
+    public static void main(String[] args) throws Exception {
+        URL testClasses = Path.of("target", "test-classes").toUri().toURL();
+        var loader = new URLClassLoader(new URL[]{testClasses}, ClassLoader.getSystemClassLoader());
+        Thread.currentThread().setContextClassLoader(loader);
+        Method main = loader.loadClass(args[0]).getMethod("main", String[].class);
+        main.invoke(null, (Object) Arrays.copyOfRange(args, 1, args.length));
+    }
+}
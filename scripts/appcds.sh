@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Class-data-sharing archive for the Pulumi program (needs JDK 13+ at runtime).
+#
+#   scripts/appcds.sh archive        train on a mocked run and write target/app-cds.jsa
+#   scripts/appcds.sh measure [n]    compare startup of the plain jar with the archived one
+#
+# The archive is only valid for the exact classpath it was created with, so both
+# training and measurement use the same relative jar path that Pulumi runs.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=target/quickstart-1.0-SNAPSHOT-jar-with-dependencies.jar
+ARCHIVE=target/app-cds.jsa
+LAUNCHER=target/cds-launcher
+STACK_FILE=${STACK_FILE:-Pulumi.dev.yaml}
+# One mocked stack construction: loads the same SDK, AWS and (optionally) GCP classes as a preview.
+# The mock tools are test classes, loaded beside the jar rather than on its class path
+BENCHMARK=(myproject.tools.StackBenchmark --fork 3 0 1)
+
+if [[ ! -f "$JAR" || ! -d target/test-classes ]]; then
+    echo "$JAR or target/test-classes not found, run mvn package first" >&2
+    exit 1
+fi
+export PULUMI_CONFIG="$(java -cp "$JAR:target/test-classes" myproject.tools.StackConfigFile "$STACK_FILE")"
+
+case "${1:-archive}" in
+    archive)
+        rm -f "$ARCHIVE"
+        # The class path must be exactly the jar Pulumi runs, so the launcher is compiled in memory
+        java -XX:ArchiveClassesAtExit="$ARCHIVE" -cp "$JAR" scripts/TestClasses.java "${BENCHMARK[@]}" > /dev/null
+        echo "Wrote $ARCHIVE"
+        ;;
+    measure)
+        runs=${2:-10}
+        time_runs() {
+            local start end
+            start=$(date +%s%N)
+            for ((i = 0; i < runs; i++)); do
+                java "$@" -cp "$JAR:$LAUNCHER" TestClasses "${BENCHMARK[@]}" > /dev/null
+            done
+            end=$(date +%s%N)
+            echo $(( (end - start) / runs / 1000000 ))
+        }
+        [[ -f "$ARCHIVE" ]] || "$0" archive
+        # Precompiled so the timings leave out compiling the launcher; entries after the jar
+        # do not invalidate the archive
+        javac -d "$LAUNCHER" scripts/TestClasses.java
+        echo "mean startup over $runs runs (ms)"
+        echo "  no CDS:          $(time_runs -Xshare:off)"
+        echo "  default JDK CDS: $(time_runs -Xshare:auto)"
+        echo "  AppCDS archive:  $(time_runs -XX:SharedArchiveFile="$ARCHIVE")"
+        ;;
+    *)
+        echo "usage: $0 archive|measure [runs]" >&2
+        exit 2
+        ;;
+esac
@@ -0,0 +1,101 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.elb.ElbFunctions;
+import com.pulumi.aws.elb.inputs.GetServiceAccountArgs;
+import com.pulumi.aws.elb.outputs.GetServiceAccountResult;
+import com.pulumi.aws.s3.BucketLifecycleConfigurationV2;
+import com.pulumi.aws.s3.BucketLifecycleConfigurationV2Args;
+import com.pulumi.aws.s3.BucketPolicy;
+import com.pulumi.aws.s3.BucketPolicyArgs;
+import com.pulumi.aws.s3.BucketPublicAccessBlock;
+import com.pulumi.aws.s3.BucketPublicAccessBlockArgs;
+import com.pulumi.aws.s3.BucketV2;
+import com.pulumi.aws.s3.BucketV2Args;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleArgs;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleExpirationArgs;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleFilterArgs;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleTransitionArgs;
+import com.pulumi.core.Output;
+import com.pulumi.deployment.InvokeOptions;
+import com.pulumi.resources.Resource;
+
+import java.util.Map;
+
+/**
+ * S3 bucket the load balancer writes access logs to. Logs move to Standard-IA after
+ * {@code lbAccessLogsIaDays} and are deleted after {@code lbAccessLogsExpirationDays}.
+ */
+final class AccessLogBucket {
+
+    static final String PREFIX = "alb";
+
+    private final BucketV2 bucket;
+    private final BucketPolicy policy;
+
+    AccessLogBucket(Config config, Region region, Resource parent) {
+        var child = Region.child(parent).build();
+        int expirationDays = config.getInteger("lbAccessLogsExpirationDays").orElse(90);
+        int iaDays = config.getInteger("lbAccessLogsIaDays").orElse(30);
+        // Standard-IA bills a 30 day minimum and S3 rejects earlier transitions
+        if (iaDays < 30) {
+            throw new IllegalArgumentException("lbAccessLogsIaDays must be at least 30, got " + iaDays);
+        }
+
+        this.bucket = new BucketV2(region.resourceName("lbAccessLogs"), BucketV2Args.builder()
+                .forceDestroy(true)
+                .tags(Map.of("Name", "lbAccessLogs"))
+                .build(), child);
+
+        new BucketPublicAccessBlock(region.resourceName("lbAccessLogsPublicAccessBlock"), BucketPublicAccessBlockArgs.builder()
+                .bucket(bucket.id())
+                .blockPublicAcls(true)
+                .blockPublicPolicy(true)
+                .ignorePublicAcls(true)
+                .restrictPublicBuckets(true)
+                .build(), child);
+
+        var rule = BucketLifecycleConfigurationV2RuleArgs.builder()
+                .id("expire-access-logs")
+                .status("Enabled")
+                .filter(BucketLifecycleConfigurationV2RuleFilterArgs.builder()
+                        .prefix(PREFIX + "/")
+                        .build())
+                .expiration(BucketLifecycleConfigurationV2RuleExpirationArgs.builder()
+                        .days(expirationDays)
+                        .build());
+        // Logs deleted before they would move are never transitioned
+        if (iaDays < expirationDays) {
+            rule.transitions(BucketLifecycleConfigurationV2RuleTransitionArgs.builder()
+                    .days(iaDays)
+                    .storageClass("STANDARD_IA")
+                    .build());
+        }
+        new BucketLifecycleConfigurationV2(region.resourceName("lbAccessLogsLifecycle"), BucketLifecycleConfigurationV2Args.builder()
+                .bucket(bucket.id())
+                .rules(rule.build())
+                .build(), child);
+
+        // The regional Elastic Load Balancing account delivers the logs
+        Output<String> elbAccountArn = ElbFunctions.getServiceAccount(GetServiceAccountArgs.Empty, new InvokeOptions(parent, null, null))
+                .applyValue(GetServiceAccountResult::arn);
+        this.policy = new BucketPolicy(region.resourceName("lbAccessLogsPolicy"), BucketPolicyArgs.builder()
+                .bucket(bucket.id())
+                .policy(Output.tuple(bucket.arn(), elbAccountArn).applyValue(t -> String.format(
+                        "{\"Version\":\"2012-10-17\",\"Statement\":[{\"Effect\":\"Allow\"," +
+                                "\"Principal\":{\"AWS\":\"%s\"},\"Action\":\"s3:PutObject\"," +
+                                "\"Resource\":\"%s/%s/*\"}]}", t.t2, t.t1, PREFIX)))
+                .build(), child);
+    }
+
+    BucketV2 bucket() {
+        return bucket;
+    }
+
+    /**
+     * The load balancer checks write access when logging is enabled, so it must wait for this.
+     */
+    BucketPolicy policy() {
+        return policy;
+    }
+}
@@ -0,0 +1,74 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.iam.Role;
+import com.pulumi.aws.iam.RolePolicy;
+import com.pulumi.aws.iam.RolePolicyArgs;
+import com.pulumi.aws.ssm.Parameter;
+import com.pulumi.aws.ssm.ParameterArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.Optional;
+
+/**
+ * Application settings published as SSM parameters under {@code ssmParameterPath}, one per
+ * {@code application.properties} key. Instances read the whole path in one call at boot, so
+ * the launch template no longer changes with the data tier and the database password is
+ * stored as a SecureString instead of in user data.
+ */
+final class AppParameters {
+
+    private final String path;
+    private final Parameter first;
+
+    AppParameters(Config config, Region region, Database data, Messaging messaging,
+                  Optional<Output<String>> cacheEndpoint, CustomResourceOptions child) {
+        this.path = config.get("ssmParameterPath").orElse("/webapp");
+
+        // The SNS topic lives in the primary region, so every fleet publishes through its endpoint
+        this.first = parameter("snsTopicArn", messaging.snsTopicArn(), region, child);
+        parameter("awsRegion", Output.of(config.require("region")), region, child);
+        parameter("DBUser", Output.of(config.require("rdsUsername")), region, child);
+        new Parameter(region.resourceName("parameterDBPassword"), ParameterArgs.builder()
+                .name(path + "/DBPassword")
+                .type("SecureString")
+                .value(config.requireSecret("rdsPassword"))
+                .build(), child);
+        parameter("DBHost", data.writerEndpoint(), region, child);
+        parameter("DBReaderHost", data.readerEndpoint(), region, child);
+        parameter("DBPort", Output.of(String.valueOf(config.requireInteger("databasePort"))), region, child);
+        parameter("DBDatabase", Output.of(config.require("rdsDBName")), region, child);
+        cacheEndpoint.ifPresent(endpoint -> {
+            parameter("CacheHost", endpoint, region, child);
+            parameter("CachePort", Output.of(String.valueOf(config.getInteger("cachePort").orElse(6379))), region, child);
+        });
+    }
+
+    private Parameter parameter(String key, Output<String> value, Region region, CustomResourceOptions child) {
+        return new Parameter(region.resourceName("parameter" + key), ParameterArgs.builder()
+                .name(path + "/" + key)
+                .type("String")
+                .value(value)
+                .build(), child);
+    }
+
+    String path() {
+        return path;
+    }
+
+    /**
+     * Lets the instance role read the parameters. SecureString values use the AWS managed
+     * SSM key, whose key policy already allows decryption through SSM within the account.
+     */
+    RolePolicy grantRead(Role role, Region region, CustomResourceOptions child) {
+        Output<String> pathArn = first.arn().applyValue(arn -> arn.substring(0, arn.lastIndexOf('/')));
+        return new RolePolicy(region.resourceName("readAppParameters"), RolePolicyArgs.builder()
+                .role(role.id())
+                .policy(pathArn.applyValue(arn -> String.format(
+                        "{\"Version\":\"2012-10-17\",\"Statement\":[{\"Effect\":\"Allow\"," +
+                                "\"Action\":[\"ssm:GetParametersByPath\",\"ssm:GetParameters\"]," +
+                                "\"Resource\":[\"%s\",\"%s/*\"]}]}", arn, arn)))
+                .build(), child);
+    }
+}
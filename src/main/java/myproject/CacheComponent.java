@@ -0,0 +1,91 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.ec2.SecurityGroup;
+import com.pulumi.aws.ec2.SecurityGroupArgs;
+import com.pulumi.aws.ec2.SecurityGroupRule;
+import com.pulumi.aws.ec2.SecurityGroupRuleArgs;
+import com.pulumi.aws.elasticache.ReplicationGroup;
+import com.pulumi.aws.elasticache.ReplicationGroupArgs;
+import com.pulumi.aws.elasticache.SubnetGroup;
+import com.pulumi.aws.elasticache.SubnetGroupArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.ComponentResource;
+import com.pulumi.resources.ComponentResourceOptions;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * ElastiCache Redis replication group in the cache subnets, reachable only from the
+ * application instances. Sized per stack through {@code cacheNodeType},
+ * {@code cacheShards} and {@code cacheReplicas}.
+ */
+final class CacheComponent extends ComponentResource {
+
+    private final Output<String> endpoint;
+
+    CacheComponent(String name, Config config, Network network, ComponentResourceOptions options) {
+        super("iac:cache:Cache", name, options);
+        var child = Region.child(this).build();
+
+        String cacheNodeType = config.get("cacheNodeType").orElse("cache.t3.micro");
+        int cacheShards = config.getInteger("cacheShards").orElse(1);
+        int cacheReplicas = config.getInteger("cacheReplicas").orElse(0);
+        String cacheEngineVersion = config.get("cacheEngineVersion").orElse("7.0");
+        int cachePort = config.getInteger("cachePort").orElse(6379);
+        boolean clusterMode = cacheShards > 1;
+        // Default groups are named per major version: default.redis7, default.redis6.x(.cluster.on)
+        int majorVersion = Integer.parseInt(cacheEngineVersion.split("\\.")[0]);
+        String cacheParameterGroupName = config.get("cacheParameterGroupName").orElse(
+                "default.redis" + majorVersion + (majorVersion < 7 ? ".x" : "") + (clusterMode ? ".cluster.on" : ""));
+
+        // Create a Security Group for the cache
+        var cacheSecurityGroup = new SecurityGroup("cacheSecurityGroup", SecurityGroupArgs.builder()
+                .vpcId(network.vpcId())
+                .tags(Map.of("Name", "cacheSecurityGroup"))
+                .build(), child);
+
+        // Cache Security Group rule to allow Inbound traffic from EC2 security group
+        new SecurityGroupRule("InboundRuleForCacheOn " + cachePort, SecurityGroupRuleArgs.builder()
+                .type("ingress")
+                .fromPort(cachePort)
+                .toPort(cachePort)
+                .protocol("tcp")
+                .sourceSecurityGroupId(network.securityGroupForEC2Id())
+                .securityGroupId(cacheSecurityGroup.id())
+                .build(), child);
+
+        var cacheSubnetGroup = new SubnetGroup("cacheSubnetGroup", SubnetGroupArgs.builder()
+                .subnetIds(network.cacheSubnetIds())
+                .build(), child);
+
+        var replicationGroup = new ReplicationGroup("webappCache", ReplicationGroupArgs.builder()
+                .description("Cache for the webapp")
+                .engine("redis")
+                .engineVersion(cacheEngineVersion)
+                .nodeType(cacheNodeType)
+                .port(cachePort)
+                .numNodeGroups(cacheShards)
+                .replicasPerNodeGroup(cacheReplicas)
+                .parameterGroupName(cacheParameterGroupName)
+                .automaticFailoverEnabled(clusterMode || cacheReplicas > 0)
+                .multiAzEnabled(cacheReplicas > 0)
+                .subnetGroupName(cacheSubnetGroup.name())
+                .securityGroupIds(cacheSecurityGroup.id().applyValue(Collections::singletonList))
+                .tags(Map.of("Name", "webappCache"))
+                .build(), child);
+
+        // Cluster mode clients discover shards through the configuration endpoint
+        this.endpoint = clusterMode
+                ? replicationGroup.configurationEndpointAddress()
+                : replicationGroup.primaryEndpointAddress();
+
+        this.registerOutputs(Map.<String, Output<?>>of(
+                "cacheEndpoint", endpoint));
+    }
+
+    Output<String> endpoint() {
+        return endpoint;
+    }
+}
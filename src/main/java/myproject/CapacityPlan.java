@@ -0,0 +1,176 @@
+package myproject;
+
+import com.pulumi.Config;
+
+import java.util.Optional;
+
+/**
+ * Stack sizes derived from a declared workload profile.
+ * <p>
+ * The profile is {@code workloadPeakRps}, {@code workloadReadRatio} (share of requests that
+ * only read), {@code workloadEmailsPerMinute} and {@code workloadP99Millis}, plus the cost
+ * model {@code workloadServiceMillis} (CPU time per request) and {@code workloadQueriesPerRequest}.
+ * Every size can still be pinned with its own key ({@code instanceType}, {@code rdsInstanceClass},
+ * ...); without {@code workloadPeakRps} those keys behave exactly as before, and without a
+ * positive {@code workloadEmailsPerMinute} the table and Lambda keep their defaults.
+ */
+final class CapacityPlan {
+
+    // vCPUs per size of a general purpose family
+    private static final String[] SIZES = {"large", "xlarge", "2xlarge", "4xlarge", "8xlarge"};
+    private static final int[] SIZE_VCPUS = {2, 4, 8, 16, 32};
+
+    // Upper bound of database queries per second each class comfortably serves
+    private static final String[] RDS_CLASSES = {"db.t3.micro", "db.t3.small", "db.t3.medium",
+            "db.m6g.large", "db.m6g.xlarge", "db.m6g.2xlarge", "db.m6g.4xlarge"};
+    private static final int[] RDS_CLASS_QPS = {200, 500, 1000, 3000, 6000, 12000, Integer.MAX_VALUE};
+
+    // ln(100): the 99th percentile of an exponential response time is 4.6 times its mean
+    private static final double P99_FACTOR = Math.log(100);
+    private static final double DYNAMO_TARGET_UTILIZATION = 0.7;
+
+    private final StackSettings config;
+    private final boolean declared;
+    private final boolean emailsDeclared;
+    private final String instanceType;
+    private final int desiredCapacity;
+    private final int minInstances;
+    private final int maxInstances;
+    private final String rdsInstanceClass;
+    private final int dynamoReadCapacity;
+    private final int dynamoWriteCapacity;
+    private final int lambdaConcurrency;
+
+    private CapacityPlan(StackSettings config) {
+        this.config = config;
+        Optional<Double> peakRps = config.getDouble("workloadPeakRps");
+        Optional<Double> emailsPerMinute = config.getDouble("workloadEmailsPerMinute").filter(rate -> rate > 0);
+        this.declared = peakRps.isPresent();
+        this.emailsDeclared = declared && emailsPerMinute.isPresent();
+        if (!declared) {
+            this.instanceType = null;
+            this.desiredCapacity = 0;
+            this.minInstances = 0;
+            this.maxInstances = 0;
+            this.rdsInstanceClass = null;
+            this.dynamoReadCapacity = 0;
+            this.dynamoWriteCapacity = 0;
+            this.lambdaConcurrency = 0;
+            return;
+        }
+
+        double rps = peakRps.get();
+        double readRatio = config.getDouble("workloadReadRatio").orElse(0.8);
+        double emailsPerSecond = emailsPerMinute.orElse(0.0) / 60;
+        double p99Millis = config.getDouble("workloadP99Millis").orElse(500.0);
+        double serviceMillis = config.getDouble("workloadServiceMillis").orElse(20.0);
+        double queriesPerRequest = config.getDouble("workloadQueriesPerRequest").orElse(2.0);
+        double burstFactor = config.getDouble("workloadBurstFactor").orElse(1.5);
+        double offPeakRatio = config.getDouble("workloadOffPeakRatio").orElse(0.25);
+        double lambdaMillis = config.getDouble("workloadLambdaMillis").orElse(500.0);
+        String family = config.get("workloadInstanceFamily").orElse("m6i");
+        int zones = config.requireInteger("num_of_subnets");
+
+        // Treating each vCPU as an M/M/1 queue, p99 = 4.6 * service / (1 - utilization), so a
+        // tighter latency target leaves more idle headroom per vCPU
+        double utilization = Math.max(0.3, Math.min(0.75, 1 - P99_FACTOR * serviceMillis / p99Millis));
+        double vcpus = rps * serviceMillis / 1000 / utilization;
+
+        // Smallest size that keeps the fleet within four instances per zone
+        int size = 0;
+        while (size < SIZES.length - 1 && Math.ceil(vcpus / SIZE_VCPUS[size]) > 4L * zones) {
+            size++;
+        }
+        this.instanceType = family + "." + SIZES[size];
+        this.desiredCapacity = Math.max(zones, (int) Math.ceil(vcpus / SIZE_VCPUS[size]));
+        this.minInstances = Math.max(zones, (int) Math.ceil(desiredCapacity * offPeakRatio));
+        this.maxInstances = Math.max(desiredCapacity + 1, (int) Math.ceil(desiredCapacity * burstFactor));
+
+        // Writes cost roughly twice a read on MariaDB (redo log, binlog, index maintenance)
+        double databaseQps = rps * queriesPerRequest * (readRatio + 2 * (1 - readRatio));
+        int rdsClass = 0;
+        while (databaseQps > RDS_CLASS_QPS[rdsClass]) {
+            rdsClass++;
+        }
+        this.rdsInstanceClass = RDS_CLASSES[rdsClass];
+
+        // One tracking row per email, written once and looked up about once when its status is
+        // checked; the web request mix does not touch this table. Only meaningful with an email
+        // rate, otherwise the accessors fall back to the defaults
+        this.dynamoWriteCapacity = Math.max(1, (int) Math.ceil(emailsPerSecond / DYNAMO_TARGET_UTILIZATION));
+        this.dynamoReadCapacity = Math.max(1, (int) Math.ceil(emailsPerSecond / DYNAMO_TARGET_UTILIZATION));
+
+        // Little's law: concurrent executions = arrival rate * duration, with burst headroom
+        this.lambdaConcurrency = Math.max(1, (int) Math.ceil(emailsPerSecond * lambdaMillis / 1000 * burstFactor));
+    }
+
+    static CapacityPlan of(Config config) {
+        return of(StackSettings.of(config));
+    }
+
+    static CapacityPlan of(StackSettings settings) {
+        return new CapacityPlan(settings);
+    }
+
+    String instanceType() {
+        return config.get("instanceType").orElseGet(() -> declared ? instanceType : config.require("instanceType"));
+    }
+
+    int minInstances() {
+        return config.getInteger("minInstances").orElseGet(() -> declared ? minInstances : config.requireInteger("minInstances"));
+    }
+
+    int maxInstances() {
+        return config.getInteger("maxInstances").orElseGet(() -> declared ? maxInstances : config.requireInteger("maxInstances"));
+    }
+
+    int desiredCapacity() {
+        return config.getInteger("desiredCapacity").orElseGet(() -> declared ? desiredCapacity : config.requireInteger("desiredCapacity"));
+    }
+
+    String rdsInstanceClass() {
+        return config.get("rdsInstanceClass").orElseGet(() -> declared ? rdsInstanceClass : config.require("rdsInstanceClass"));
+    }
+
+    int dynamoReadCapacity() {
+        return config.getInteger("dynamoReadCapacity").orElse(emailsDeclared ? dynamoReadCapacity : 5);
+    }
+
+    int dynamoWriteCapacity() {
+        return config.getInteger("dynamoWriteCapacity").orElse(emailsDeclared ? dynamoWriteCapacity : 5);
+    }
+
+    /**
+     * Auto scaling ceiling for the table: four times the planned peak, so bursts above the
+     * profile are absorbed without throttling.
+     */
+    int dynamoMaxReadCapacity() {
+        return config.getInteger("dynamoMaxReadCapacity").orElse(emailsDeclared ? 4 * dynamoReadCapacity : dynamoReadCapacity());
+    }
+
+    int dynamoMaxWriteCapacity() {
+        return config.getInteger("dynamoMaxWriteCapacity").orElse(emailsDeclared ? 4 * dynamoWriteCapacity : dynamoWriteCapacity());
+    }
+
+    /**
+     * Reserved concurrency for the email Lambda; -1 leaves it on the unreserved account pool.
+     * Provisioned concurrency must fit in it, so a derived value is raised to
+     * {@link #lambdaProvisionedConcurrency} and a configured one below it is rejected.
+     */
+    int lambdaReservedConcurrency() {
+        int provisioned = lambdaProvisionedConcurrency();
+        Optional<Integer> configured = config.getInteger("lambdaReservedConcurrency");
+        if (configured.isPresent() && configured.get() >= 0 && configured.get() < provisioned) {
+            throw new IllegalArgumentException("lambdaReservedConcurrency " + configured.get()
+                    + " is below lambdaProvisionedConcurrency " + provisioned);
+        }
+        return configured.orElse(emailsDeclared ? Math.max(lambdaConcurrency, provisioned) : -1);
+    }
+
+    /**
+     * Pre-initialized execution environments for the email Lambda; 0 for none.
+     */
+    int lambdaProvisionedConcurrency() {
+        return config.getInteger("lambdaProvisionedConcurrency").orElse(0);
+    }
+}
@@ -0,0 +1,518 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.autoscaling.Attachment;
+import com.pulumi.aws.autoscaling.AttachmentArgs;
+import com.pulumi.aws.autoscaling.Group;
+import com.pulumi.aws.autoscaling.GroupArgs;
+import com.pulumi.aws.autoscaling.inputs.*;
+import com.pulumi.aws.ec2.LaunchTemplate;
+import com.pulumi.aws.ec2.LaunchTemplateArgs;
+import com.pulumi.aws.ec2.inputs.*;
+import com.pulumi.aws.iam.*;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementPrincipalArgs;
+import com.pulumi.aws.iam.outputs.GetPolicyDocumentResult;
+import com.pulumi.aws.lb.*;
+import com.pulumi.aws.lb.inputs.ListenerDefaultActionArgs;
+import com.pulumi.aws.lb.inputs.LoadBalancerAccessLogsArgs;
+import com.pulumi.aws.lb.inputs.TargetGroupHealthCheckArgs;
+import com.pulumi.aws.route53.Record;
+import com.pulumi.aws.route53.RecordArgs;
+import com.pulumi.aws.route53.inputs.RecordAliasArgs;
+import com.pulumi.aws.route53.inputs.RecordLatencyRoutingPolicyArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.ComponentResource;
+import com.pulumi.resources.CustomResourceOptions;
+import com.pulumi.resources.Resource;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Webapp fleet: launch template, auto scaling group with its scaling policies and
+ * optional warm pool, the application load balancer and the Route53 alias in front of it.
+ * With several {@code regions} each regional load balancer gets a latency-based alias;
+ * with {@code cdnEnabled} the alias can point at a CloudFront distribution instead.
+ */
+final class ComputeComponent extends ComponentResource {
+
+    // Graviton families carry a 'g' right after the generation number: t4g, m7g, c6gn, r6gd
+    private static final Pattern GRAVITON_TYPE = Pattern.compile("^[a-z]+\\d+g[a-z]*\\..+");
+
+    private static final String LAUNCH_HOOK_NAME = "webapp-launch";
+
+    private final Group asg;
+    private final LoadBalancer loadBalancer;
+    private final TargetGroup targetGroup;
+
+    ComputeComponent(String name, Config config, CapacityPlan plan, Region region, Network network, Database data,
+                     Messaging messaging, Optional<Output<String>> cacheEndpoint) {
+        super("iac:compute:Compute", region.resourceName(name), region.options());
+        var child = Region.child(this).build();
+
+        int applicationPortForEC2 = config.requireInteger("applicationPortForEC2");
+        String amiId = region.require(config, "amiId");
+        String instanceAssumeRoleIdentifier = config.require("instanceAssumeRoleIdentifier");
+        String CWRoleName = config.require("CWRoleName");
+        String domainZoneId = config.require("domainZoneId");
+        String domainName = config.require("domainName");
+        String healthCheckPath = config.require("healthCheckPath");
+        int minInstances = plan.minInstances();
+        int maxInstances = plan.maxInstances();
+        int desiredCapacity = plan.desiredCapacity();
+        int instanceWarmUpTime = config.requireInteger("instanceWarmUpTime");
+        String loadBalancerType = config.require("loadBalancerType");
+        String[] policyARN = config.require("policyARNs").split(",");
+        List<String> policyARNs = new ArrayList<>(Arrays.asList(policyARN));
+        String certificateArn = region.require(config, "certificateArn");
+
+        // Settings live in Parameter Store; user data only knows where to read them, so data
+        // tier changes no longer produce a new launch template version
+        var parameters = new AppParameters(config, region, data, messaging, cacheEndpoint, child);
+
+        // With the launch hook an instance only goes in service once the app answers its
+        // health check, so instanceWarmUpTime no longer has to cover the whole boot
+        boolean launchHookEnabled = config.getBoolean("launchHookEnabled").orElse(true);
+        int launchHookTimeout = config.getInteger("launchHookTimeout").orElse(300);
+
+        // User Data Script. The instance learns the group it belongs to first, so it can keep the
+        // launch hook alive while it waits for the database endpoint to be published
+        String userDataScript = "#!/bin/bash\n" +
+                "az=`curl -s http://169.254.169.254/latest/meta-data/placement/availability-zone`\n" +
+                "region=`curl -s http://169.254.169.254/latest/meta-data/placement/region`\n" +
+                "instance=`curl -s http://169.254.169.254/latest/meta-data/instance-id`\n" +
+                "sudo /opt/aws/amazon-cloudwatch-agent/bin/amazon-cloudwatch-agent-ctl -a fetch-config -m ec2 -c file:/opt/cloudwatch-config.json -s\n";
+        if (launchHookEnabled) {
+            userDataScript += "asg=`aws autoscaling describe-auto-scaling-instances --region $region --instance-ids $instance " +
+                    "--query 'AutoScalingInstances[0].AutoScalingGroupName' --output text`\n";
+        }
+        // The fleet is created alongside the database rather than after it; DBHost appears once it is
+        // available. GetParameters reports a missing name as an empty result rather than an error,
+        // so real failures such as AccessDenied still reach the cloud-init log
+        userDataScript += String.format(
+                "until [ \"`aws ssm get-parameters --region $region --names %s/DBHost " +
+                        "--query 'length(Parameters)' --output text`\" = 1 ]; do\n" +
+                        "%s" +
+                        "  sleep 15\n" +
+                        "done\n" +
+                        "echo \"AvailabilityZone=$az\" >> /opt/csye6225/application.properties\n" +
+                        "aws ssm get-parameters-by-path --region $region --path %s --with-decryption " +
+                        "--query 'Parameters[*].[Name,Value]' --output text | " +
+                        "while IFS=$'\\t' read -r name value; do echo \"${name##*/}=$value\"; done >> /opt/csye6225/application.properties\n",
+                parameters.path(),
+                launchHookEnabled
+                        ? String.format("  aws autoscaling record-lifecycle-action-heartbeat --region $region --lifecycle-hook-name %s " +
+                        "--auto-scaling-group-name \"$asg\" --instance-id $instance\n", LAUNCH_HOOK_NAME)
+                        : "",
+                parameters.path());
+        if (launchHookEnabled) {
+            // The hook fires again when a warm pool instance goes in service, after a restart that
+            // does not rerun user data, so a unit completes it on every boot. IMDS reports the state
+            // the pending transition leads to; a Running pool instance moves in service without a
+            // restart, so the unit waits for that second transition itself
+            userDataScript += String.format(
+                    "cat > /usr/local/bin/webapp-launch-hook <<'EOF'\n" +
+                            "#!/bin/bash\n" +
+                            "imds=http://169.254.169.254/latest/meta-data\n" +
+                            "region=`curl -s $imds/placement/region`\n" +
+                            "instance=`curl -s $imds/instance-id`\n" +
+                            "asg=`aws autoscaling describe-auto-scaling-instances --region $region --instance-ids $instance " +
+                            "--query 'AutoScalingInstances[0].AutoScalingGroupName' --output text`\n" +
+                            "complete() {\n" +
+                            "  result=ABANDON\n" +
+                            "  for i in $(seq 1 %d); do\n" +
+                            "    if curl -sf http://localhost:%d%s > /dev/null; then result=CONTINUE; break; fi\n" +
+                            "    sleep 5\n" +
+                            "  done\n" +
+                            "  aws autoscaling complete-lifecycle-action --region $region --lifecycle-hook-name %s " +
+                            "--auto-scaling-group-name \"$asg\" --instance-id $instance --lifecycle-action-result $result\n" +
+                            "}\n" +
+                            "target=`curl -s $imds/autoscaling/target-lifecycle-state`\n" +
+                            "case \"$target\" in\n" +
+                            "  InService|Warmed:Stopped|Warmed:Hibernated) complete ;;\n" +
+                            "  Warmed:Running)\n" +
+                            "    complete\n" +
+                            "    until [ \"`curl -s $imds/autoscaling/target-lifecycle-state`\" = InService ]; do sleep 5; done\n" +
+                            "    complete ;;\n" +
+                            "esac\n" +
+                            "EOF\n" +
+                            "chmod +x /usr/local/bin/webapp-launch-hook\n" +
+                            "cat > /etc/systemd/system/webapp-launch-hook.service <<'EOF'\n" +
+                            "[Unit]\n" +
+                            "Description=Complete the auto scaling launch hook once the webapp is healthy\n" +
+                            "Wants=network-online.target\n" +
+                            "After=network-online.target\n" +
+                            "[Service]\n" +
+                            "Type=simple\n" +
+                            "ExecStart=/usr/local/bin/webapp-launch-hook\n" +
+                            "[Install]\n" +
+                            "WantedBy=multi-user.target\n" +
+                            "EOF\n" +
+                            "systemctl daemon-reload\n" +
+                            "systemctl enable --now webapp-launch-hook.service\n",
+                    launchHookTimeout / 5, applicationPortForEC2, healthCheckPath, LAUNCH_HOOK_NAME);
+        }
+
+        Output<String> encodedUserData = Output.of(Base64.getEncoder().encodeToString(userDataScript.getBytes()));
+
+        //creating an assumeRolePolicy for EC2 instance
+        final var instanceAssumeRolePolicy = IamFunctions.getPolicyDocument(GetPolicyDocumentArgs.builder()
+                .statements(GetPolicyDocumentStatementArgs.builder()
+                        .effect("Allow")
+                        .principals(GetPolicyDocumentStatementPrincipalArgs.builder()
+                                .type("Service")
+                                .identifiers(instanceAssumeRoleIdentifier)
+                                .build())
+                        .actions("sts:AssumeRole")
+                        .build())
+                .build());
+
+        //creating a role
+        var cwRole = new Role(region.resourceName(CWRoleName), RoleArgs.builder()
+                .assumeRolePolicy(instanceAssumeRolePolicy.applyValue(GetPolicyDocumentResult::json))
+                .managedPolicyArns(policyARNs)
+                .build(), child);
+
+        //creating instance profile for role
+        var instanceProfile = new InstanceProfile(region.resourceName("instanceProfile"), InstanceProfileArgs.builder()
+                .role(cwRole.id())
+                .build(), child);
+
+        List<Resource> instancePolicies = new ArrayList<>();
+        instancePolicies.add(parameters.grantRead(cwRole, region, child));
+        if (launchHookEnabled) {
+            instancePolicies.add(new RolePolicy(region.resourceName("completeLaunchHook"), RolePolicyArgs.builder()
+                    .role(cwRole.id())
+                    .policy("{\"Version\":\"2012-10-17\",\"Statement\":[{\"Effect\":\"Allow\"," +
+                            "\"Action\":[\"autoscaling:DescribeAutoScalingInstances\",\"autoscaling:RecordLifecycleActionHeartbeat\"," +
+                            "\"autoscaling:CompleteLifecycleAction\"]," +
+                            "\"Resource\":\"*\"}]}")
+                    .build(), child));
+        }
+
+        // creating launch template for EC2
+        var launchTemplateForEC2 = createLaunchTemplate("launchTemplateForEC2", amiId,
+                plan.instanceType(), config, region, network, instanceProfile, encodedUserData, child);
+
+        // Auto Scaling Group for EC2
+        var asgArgs = GroupArgs.builder()
+                .minSize(minInstances)
+                .maxSize(maxInstances)
+                .desiredCapacity(desiredCapacity)
+                .defaultCooldown(60)
+                .defaultInstanceWarmup(instanceWarmUpTime)
+                // Returning once the group exists lets its policies, alarms and attachment proceed
+                // while instances wait for the database; the launch hook keeps them out of service
+                .waitForCapacityTimeout(config.get("asgWaitForCapacityTimeout").orElse("0"))
+                .vpcZoneIdentifiers(network.computeSubnetIds());
+        // An instance refresh only starts when the group's template reference changes, which
+        // "$Latest" never does, so with refresh enabled the group pins the current version
+        boolean asgInstanceRefresh = config.getBoolean("asgInstanceRefresh").orElse(true);
+        if (asgInstanceRefresh) {
+            asgArgs.instanceRefresh(instanceRefresh(config, instanceWarmUpTime));
+        }
+        Optional<String> instanceTypes = config.get("instanceTypes");
+        if (instanceTypes.isPresent()) {
+            asgArgs.mixedInstancesPolicy(mixedInstancesPolicy(instanceTypes.get(), config, region, network,
+                    launchTemplateForEC2, instanceProfile, encodedUserData, minInstances, asgInstanceRefresh, child));
+        } else {
+            asgArgs.launchTemplate(GroupLaunchTemplateArgs.builder()
+                    .name(launchTemplateForEC2.name())
+                    .version(version(launchTemplateForEC2, asgInstanceRefresh))
+                    .build());
+        }
+        FleetSettings.warmPoolSize(StackSettings.of(config)).ifPresent(asgWarmPoolSize -> {
+            // Pre-initialized instances join in seconds instead of booting from scratch
+            asgArgs.warmPool(GroupWarmPoolArgs.builder()
+                    .minSize(asgWarmPoolSize)
+                    .maxGroupPreparedCapacity(config.getInteger("asgWarmPoolMaxPrepared").orElse(maxInstances))
+                    .poolState(config.get("asgWarmPoolState").orElse("Stopped"))
+                    .instanceReusePolicy(GroupWarmPoolInstanceReusePolicyArgs.builder()
+                            .reuseOnScaleIn(true)
+                            .build())
+                    .build());
+        });
+        // Declared on the group so they also apply to the instances launched when it is created
+        List<GroupInitialLifecycleHookArgs> lifecycleHooks = new ArrayList<>();
+        if (launchHookEnabled) {
+            lifecycleHooks.add(GroupInitialLifecycleHookArgs.builder()
+                    .name(LAUNCH_HOOK_NAME)
+                    .lifecycleTransition("autoscaling:EC2_INSTANCE_LAUNCHING")
+                    .heartbeatTimeout(launchHookTimeout)
+                    .defaultResult("ABANDON")
+                    .build());
+        }
+        int asgTerminationDrainSeconds = config.getInteger("asgTerminationDrainSeconds").orElse(0);
+        if (asgTerminationDrainSeconds > 0) {
+            // The group deregisters an instance and waits out the target group's deregistration
+            // delay before this hook, so requests have drained; the hook then leaves the app time
+            // to finish background work such as pending SNS publishes before shutdown
+            lifecycleHooks.add(GroupInitialLifecycleHookArgs.builder()
+                    .name("webapp-terminate")
+                    .lifecycleTransition("autoscaling:EC2_INSTANCE_TERMINATING")
+                    .heartbeatTimeout(asgTerminationDrainSeconds)
+                    .defaultResult("CONTINUE")
+                    .build());
+        }
+        if (!lifecycleHooks.isEmpty()) {
+            asgArgs.initialLifecycleHooks(lifecycleHooks);
+        }
+        // Instances read their settings and complete the hook at boot, so the role needs both policies first
+        this.asg = new Group(region.resourceName("autoScalingGroupForEC2"), asgArgs.build(),
+                Region.child(this).dependsOn(instancePolicies).build());
+
+        // creating a load balancer
+        var loadBalancerArgs = LoadBalancerArgs.builder()
+                .loadBalancerType(loadBalancerType)
+                .securityGroups(network.securityGroupForLBId().applyValue(Collections::singletonList))
+                .subnets(network.publicSubnetIds())
+                .idleTimeout(config.getInteger("lbIdleTimeout").orElse(60))
+                .enableHttp2(config.getBoolean("lbHttp2").orElse(true));
+        var loadBalancerOptions = Region.child(this);
+        if (config.getBoolean("lbAccessLogsEnabled").orElse(false)) {
+            var accessLogs = new AccessLogBucket(config, region, this);
+            loadBalancerArgs.accessLogs(LoadBalancerAccessLogsArgs.builder()
+                    .bucket(accessLogs.bucket().bucket())
+                    .prefix(AccessLogBucket.PREFIX)
+                    .enabled(true)
+                    .build());
+            loadBalancerOptions.dependsOn(accessLogs.policy());
+        }
+        this.loadBalancer = new LoadBalancer(region.resourceName("LoadBalancerForEC2"), loadBalancerArgs.build(), loadBalancerOptions.build());
+
+        // least_outstanding_requests sends new requests to the least busy instance; AWS
+        // does not allow it together with slow start
+        String lbAlgorithm = config.get("lbAlgorithm").orElse("round_robin");
+        int lbSlowStart = config.getInteger("lbSlowStart").orElse(0);
+        if (lbSlowStart > 0 && "least_outstanding_requests".equals(lbAlgorithm)) {
+            throw new IllegalArgumentException("lbSlowStart cannot be combined with lbAlgorithm least_outstanding_requests");
+        }
+
+        // Timeout and thresholds keep the provider defaults (5s, 3 healthy, 3 unhealthy) unless set
+        var healthCheck = TargetGroupHealthCheckArgs.builder()
+                .enabled(true)
+                .interval(config.getInteger("healthCheckInterval").orElse(30))
+                .port(String.valueOf(applicationPortForEC2))
+                .path(healthCheckPath)
+                .protocol("HTTP");
+        config.getInteger("healthCheckTimeout").ifPresent(healthCheck::timeout);
+        config.getInteger("healthCheckHealthyThreshold").ifPresent(healthCheck::healthyThreshold);
+        config.getInteger("healthCheckUnhealthyThreshold").ifPresent(healthCheck::unhealthyThreshold);
+
+        // creating a target group for load balancer
+        this.targetGroup = new TargetGroup(region.resourceName("targetGroupForLB"), new TargetGroupArgs.Builder()
+                .port(applicationPortForEC2)
+                .protocol("HTTP")
+                .vpcId(network.vpcId())
+                .loadBalancingAlgorithmType(lbAlgorithm)
+                .slowStart(lbSlowStart)
+                .deregistrationDelay(config.getInteger("lbDeregistrationDelay").orElse(300))
+                .healthCheck(healthCheck.build())
+                .build(), child);
+
+        // creating a listener for load balancer
+        new Listener(region.resourceName("listenerForLB"), ListenerArgs.builder()
+                .loadBalancerArn(loadBalancer.arn())
+                .port(443)
+                .protocol("HTTPS")
+                .sslPolicy(config.get("lbSslPolicy").orElse("ELBSecurityPolicy-TLS13-1-2-2021-06"))
+                .certificateArn(certificateArn)
+                .defaultActions(ListenerDefaultActionArgs.builder()
+                        .type("forward")
+                        .targetGroupArn(targetGroup.arn())
+                        .build())
+                .build(), child);
+
+        //attaching target group to load balancer
+        new Attachment(region.resourceName("autoscaleAttachment"), AttachmentArgs.builder()
+                .autoscalingGroupName(asg.name())
+                .lbTargetGroupArn(targetGroup.arn())
+                .build(), child);
+
+        new FleetScaling(config, region, asg, loadBalancer, targetGroup, child);
+
+        // Optional CloudFront distribution caching cdnCacheBehaviors paths at the edge
+        var aliasTarget = RecordAliasArgs.builder()
+                .name(loadBalancer.dnsName())
+                .zoneId(loadBalancer.zoneId())
+                .evaluateTargetHealth(true);
+        if (config.getBoolean("cdnEnabled").orElse(false)) {
+            if (!Region.secondaryNames(config).isEmpty()) {
+                throw new IllegalArgumentException("cdnEnabled cannot be combined with regions");
+            }
+            var edge = new EdgeDistribution(config, region, loadBalancer, child);
+            if (config.getBoolean("cdnAliasRecord").orElse(true)) {
+                aliasTarget = RecordAliasArgs.builder()
+                        .name(edge.domainName())
+                        .zoneId(edge.hostedZoneId())
+                        .evaluateTargetHealth(false);
+            }
+        }
+
+        //creating A Record for load balancer
+        var recordArgs = RecordArgs.builder()
+                .zoneId(domainZoneId)
+                .name(domainName)
+                .type("A")
+                .aliases(aliasTarget.build());
+        if (!Region.secondaryNames(config).isEmpty()) {
+            // Route53 answers with the lowest-latency region whose load balancer has healthy targets
+            recordArgs.setIdentifier(region.name())
+                    .latencyRoutingPolicies(RecordLatencyRoutingPolicyArgs.builder()
+                            .region(region.name())
+                            .build());
+        }
+        new Record(region.resourceName("www"), recordArgs.build(), child);
+
+        this.registerOutputs(Map.<String, Output<?>>of(
+                "loadBalancerDnsName", loadBalancer.dnsName()));
+    }
+
+    /**
+     * Launch template for the webapp fleet. gp3 volumes take {@code volumeIops} and
+     * {@code volumeThroughput}, so disk performance no longer scales only with size.
+     */
+    private static LaunchTemplate createLaunchTemplate(String resourceName, String imageId, String instanceType,
+                                                       Config config, Region region, Network network,
+                                                       InstanceProfile instanceProfile, Output<String> encodedUserData,
+                                                       CustomResourceOptions child) {
+        int ec2Volume = config.requireInteger("volume");
+        String sshKeyName = region.require(config, "sshKeyName");
+        String ec2DeviceName = config.require("deviceName");
+        String ec2VolumeType = config.require("volumeType");
+        String ec2Name = config.require("ec2Name");
+
+        var volume = LaunchTemplateBlockDeviceMappingEbsArgs.builder()
+                .deleteOnTermination("true")
+                .volumeType(ec2VolumeType)
+                .volumeSize(ec2Volume);
+        if (!"gp2".equals(ec2VolumeType)) {
+            config.getInteger("volumeIops").ifPresent(volume::iops);
+        }
+        if ("gp3".equals(ec2VolumeType)) {
+            config.getInteger("volumeThroughput").ifPresent(volume::throughput);
+        }
+
+        var launchTemplateArgs = LaunchTemplateArgs.builder()
+                .imageId(imageId)
+                .instanceType(instanceType)
+                .keyName(sshKeyName)
+                .blockDeviceMappings(LaunchTemplateBlockDeviceMappingArgs.builder()
+                        .deviceName(ec2DeviceName)
+                        .ebs(volume.build())
+                        .build())
+                .disableApiTermination(false)
+                .networkInterfaces(LaunchTemplateNetworkInterfaceArgs.builder()
+                        .associatePublicIpAddress(network.computeInPrivateSubnets().applyValue(isPrivate -> String.valueOf(!isPrivate)))
+                        .subnetId(network.computeSubnetIds().applyValue(ids -> ids.get(0)))
+                        .securityGroups(network.securityGroupForEC2Id().applyValue(Collections::singletonList))
+                        .build())
+                .iamInstanceProfile(LaunchTemplateIamInstanceProfileArgs.builder()
+                        .arn(instanceProfile.arn())
+                        .build())
+                .metadataOptions(LaunchTemplateMetadataOptionsArgs.builder()
+                        .instanceMetadataTags("enabled")
+                        .build())
+                .userData(encodedUserData)
+                .tags(Map.of("Name", resourceName))
+                .tagSpecifications(LaunchTemplateTagSpecificationArgs.builder()
+                        .resourceType("instance")
+                        .tags(Map.of("Name", ec2Name))
+                        .build());
+        return new LaunchTemplate(region.resourceName(resourceName), launchTemplateArgs.build(), child);
+    }
+
+    /**
+     * Spreads the fleet over {@code instanceTypes}, keeping {@code onDemandBaseCapacity}
+     * on-demand and running {@code spotPercentage} of the rest on Spot. Graviton types
+     * (t4g, m7g, c6gn...) launch from a separate template built on {@code armAmiId}.
+     */
+    private static GroupMixedInstancesPolicyArgs mixedInstancesPolicy(String instanceTypes, Config config,
+                                                                      Region region, Network network,
+                                                                      LaunchTemplate launchTemplateForEC2,
+                                                                      InstanceProfile instanceProfile,
+                                                                      Output<String> encodedUserData, int minInstances,
+                                                                      boolean pinVersions, CustomResourceOptions child) {
+        int spotPercentage = config.getInteger("spotPercentage").orElse(0);
+        List<String> types = Arrays.stream(instanceTypes.split(",")).map(String::trim).collect(toList());
+        Optional<String> armType = types.stream().filter(type -> GRAVITON_TYPE.matcher(type).matches()).findFirst();
+        LaunchTemplate armLaunchTemplate = null;
+        if (armType.isPresent()) {
+            String armAmiId = region.get(config, "armAmiId").orElseThrow(() ->
+                    new IllegalArgumentException("Graviton instance type " + armType.get() + " needs armAmiId"));
+            armLaunchTemplate = createLaunchTemplate("launchTemplateForEC2Arm", armAmiId, armType.get(),
+                    config, region, network, instanceProfile, encodedUserData, child);
+        }
+
+        List<GroupMixedInstancesPolicyLaunchTemplateOverrideArgs> overrides = new ArrayList<>();
+        for (String instanceType : types) {
+            var override = GroupMixedInstancesPolicyLaunchTemplateOverrideArgs.builder()
+                    .instanceType(instanceType);
+            if (GRAVITON_TYPE.matcher(instanceType).matches()) {
+                override.launchTemplateSpecification(GroupMixedInstancesPolicyLaunchTemplateOverrideLaunchTemplateSpecificationArgs.builder()
+                        .launchTemplateId(armLaunchTemplate.id())
+                        .version(version(armLaunchTemplate, pinVersions))
+                        .build());
+            }
+            overrides.add(override.build());
+        }
+
+        return GroupMixedInstancesPolicyArgs.builder()
+                .instancesDistribution(GroupMixedInstancesPolicyInstancesDistributionArgs.builder()
+                        .onDemandBaseCapacity(config.getInteger("onDemandBaseCapacity").orElse(minInstances))
+                        .onDemandPercentageAboveBaseCapacity(100 - spotPercentage)
+                        .spotAllocationStrategy(config.get("spotAllocationStrategy").orElse("capacity-optimized"))
+                        .build())
+                .launchTemplate(GroupMixedInstancesPolicyLaunchTemplateArgs.builder()
+                        .launchTemplateSpecification(GroupMixedInstancesPolicyLaunchTemplateLaunchTemplateSpecificationArgs.builder()
+                                .launchTemplateId(launchTemplateForEC2.id())
+                                .version(version(launchTemplateForEC2, pinVersions))
+                                .build())
+                        .overrides(overrides)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Rolling replacement whenever the launch template changes, keeping
+     * {@code asgRefreshMinHealthyPercentage} of the group in service. {@code asgRefreshCheckpoints}
+     * (percentages, e.g. {@code 25,50}) pause the rollout for {@code asgRefreshCheckpointDelay}
+     * seconds to watch metrics; instances already on the new template are skipped.
+     */
+    private static GroupInstanceRefreshArgs instanceRefresh(Config config, int instanceWarmUpTime) {
+        var preferences = GroupInstanceRefreshPreferencesArgs.builder()
+                .minHealthyPercentage(config.getInteger("asgRefreshMinHealthyPercentage").orElse(90))
+                // A batch counts as healthy only after the same warm-up scaling uses
+                .instanceWarmup(String.valueOf(instanceWarmUpTime))
+                .skipMatching(config.getBoolean("asgRefreshSkipMatching").orElse(true));
+        FleetSettings.refreshCheckpoints(StackSettings.of(config)).ifPresent(percentages -> {
+            preferences.checkpointPercentages(percentages)
+                    .checkpointDelay(String.valueOf(config.getInteger("asgRefreshCheckpointDelay").orElse(instanceWarmUpTime)));
+        });
+
+        return GroupInstanceRefreshArgs.builder()
+                .strategy("Rolling")
+                .preferences(preferences.build())
+                .build();
+    }
+
+    private static Output<String> version(LaunchTemplate launchTemplate, boolean pinned) {
+        return pinned ? launchTemplate.latestVersion().applyValue(String::valueOf) : Output.of("$Latest");
+    }
+
+    Group asg() {
+        return asg;
+    }
+
+    LoadBalancer loadBalancer() {
+        return loadBalancer;
+    }
+
+    TargetGroup targetGroup() {
+        return targetGroup;
+    }
+}
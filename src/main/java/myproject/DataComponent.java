@@ -0,0 +1,362 @@
+package myproject;
+
+import com.google.gson.JsonObject;
+import com.pulumi.Config;
+import com.pulumi.aws.ec2.SecurityGroup;
+import com.pulumi.aws.ec2.SecurityGroupArgs;
+import com.pulumi.aws.ec2.SecurityGroupRule;
+import com.pulumi.aws.ec2.SecurityGroupRuleArgs;
+import com.pulumi.aws.iam.IamFunctions;
+import com.pulumi.aws.iam.Role;
+import com.pulumi.aws.iam.RoleArgs;
+import com.pulumi.aws.iam.RolePolicy;
+import com.pulumi.aws.iam.RolePolicyArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementPrincipalArgs;
+import com.pulumi.aws.iam.outputs.GetPolicyDocumentResult;
+import com.pulumi.aws.rds.*;
+import com.pulumi.aws.rds.inputs.ProxyAuthArgs;
+import com.pulumi.aws.rds.inputs.ProxyDefaultTargetGroupConnectionPoolConfigArgs;
+import com.pulumi.aws.secretsmanager.Secret;
+import com.pulumi.aws.secretsmanager.SecretArgs;
+import com.pulumi.aws.secretsmanager.SecretVersion;
+import com.pulumi.aws.secretsmanager.SecretVersionArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.ComponentResource;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MariaDB instance for the webapp, placed in the private subnets of the network tier,
+ * with optional read replicas and an RDS Proxy that pools connections from the fleet.
+ * In a secondary region it is a cross-region read replica of the primary's instance.
+ */
+final class DataComponent extends ComponentResource implements Database {
+
+    private final Instance rdsInstance;
+    private final Output<String> writerEndpoint;
+    private final Output<String> readerEndpoint;
+
+    DataComponent(String name, Config config, CapacityPlan plan, Region region, Network network,
+                  Optional<DataComponent> source) {
+        super("iac:data:Data", region.resourceName(name), region.options());
+        var child = Region.child(this).build();
+
+        int databasePort = config.requireInteger("databasePort");
+        String rdsInstanceIdentifier = config.require("instanceIdentifier");
+        String rdsUsername = config.require("rdsUsername");
+        Output<String> rdsPassword = config.requireSecret("rdsPassword");
+        String rdsDBName = config.require("rdsDBName");
+        int rdsAllocatedStorage = config.requireInteger("rdsAllocatedStorage");
+        String rdsInstanceClass = plan.rdsInstanceClass();
+        String rdsDBFamily = config.require("rdsDBFamily");
+        String rdsEngine = config.require("rdsEngine");
+        String rdsEngineVersion = config.require("rdsEngineVersion");
+        int rdsReadReplicas = config.getInteger("rdsReadReplicas").orElse(0);
+        String rdsReplicaInstanceClass = config.get("rdsReplicaInstanceClass").orElse(rdsInstanceClass);
+        boolean rdsProxyEnabled = config.getBoolean("rdsProxyEnabled").orElse(false);
+
+        // Create DB Parameter group, tuned for the class of the instances that use it
+        String tunedClass = source.isPresent() ? rdsReplicaInstanceClass : rdsInstanceClass;
+        ParameterGroup rdsDBParameterGroup = new ParameterGroup(region.resourceName("rdsgroup"), ParameterGroupArgs.builder()
+                .family(rdsDBFamily)
+                .parameters(MariaDbTuning.of(config, tunedClass).parameters())
+                .tags(Map.of("Name", "rdsgroup"))
+                .build(), child);
+        // A smaller replica class cannot take the primary's buffer pool
+        ParameterGroup replicaParameterGroup = rdsDBParameterGroup;
+        if (source.isEmpty() && rdsReadReplicas > 0 && !rdsReplicaInstanceClass.equals(rdsInstanceClass)) {
+            replicaParameterGroup = new ParameterGroup(region.resourceName("rdsreplicagroup"), ParameterGroupArgs.builder()
+                    .family(rdsDBFamily)
+                    .parameters(MariaDbTuning.of(config, rdsReplicaInstanceClass).parameters())
+                    .tags(Map.of("Name", "rdsreplicagroup"))
+                    .build(), child);
+        }
+
+        // Create a subnet group for RDS instance
+        SubnetGroup dbSubnetGroup = new SubnetGroup(region.resourceName("subnetgroup"), SubnetGroupArgs.builder()
+                .subnetIds(network.dataSubnetIds())
+                .name("subnetgroup")
+                .build(), child);
+
+        if (source.isPresent()) {
+            // Cross-region replica: reads stay in this region, writes go to the primary over VPC peering
+            this.rdsInstance = new Instance(region.resourceName("myRDSInstance"), InstanceArgs.builder()
+                    .replicateSourceDb(source.get().rdsInstance().arn())
+                    .instanceClass(rdsReplicaInstanceClass)
+                    .identifier(rdsInstanceIdentifier)
+                    .skipFinalSnapshot(true)
+                    .publiclyAccessible(false)
+                    .parameterGroupName(rdsDBParameterGroup.name())
+                    .dbSubnetGroupName(dbSubnetGroup.name())
+                    .port(databasePort)
+                    .vpcSecurityGroupIds(network.rdsSecurityGroupId().applyValue(Collections::singletonList))
+                    .tags(Map.of("Name", "myRDSInstance"))
+                    .build(), child);
+
+            // The peering rule opens the primary instance itself, not the proxy
+            this.writerEndpoint = source.get().rdsInstance().address();
+            this.readerEndpoint = rdsInstance.address();
+        } else {
+            // Create the RDS instance
+            var rdsArgs = InstanceArgs.builder()
+                    .instanceClass(rdsInstanceClass)
+                    .allocatedStorage(rdsAllocatedStorage)
+                    .engine(rdsEngine)
+                    .engineVersion(rdsEngineVersion)
+                    .identifier(rdsInstanceIdentifier)
+                    .username(rdsUsername)
+                    .password(rdsPassword)
+                    .skipFinalSnapshot(true)
+                    .publiclyAccessible(false)
+                    .multiAz(false)
+                    .parameterGroupName(rdsDBParameterGroup.name())
+                    .dbName(rdsDBName)
+                    .port(databasePort)
+                    .vpcSecurityGroupIds(network.rdsSecurityGroupId().applyValue(Collections::singletonList))
+                    .dbSubnetGroupName(dbSubnetGroup.name())
+                    .tags(Map.of("Name", "myRDSInstance"));
+            configureStorage(config, rdsAllocatedStorage, rdsArgs);
+            if (config.getBoolean("rdsPerformanceInsights").orElse(false)) {
+                // Wait events and top SQL per query digest; 7 days of retention is free
+                rdsArgs.performanceInsightsEnabled(true)
+                        .performanceInsightsRetentionPeriod(config.getInteger("rdsPerformanceInsightsRetention").orElse(7));
+            }
+            int rdsMonitoringInterval = config.getInteger("rdsMonitoringInterval").orElse(0);
+            if (rdsMonitoringInterval > 0) {
+                // OS-level metrics (per-process CPU, memory, disk queue) at 1-60 second granularity
+                rdsArgs.monitoringInterval(rdsMonitoringInterval)
+                        .monitoringRoleArn(createMonitoringRole(child).arn());
+            }
+            if (rdsReadReplicas > 0 || !Region.secondaryNames(config).isEmpty()) {
+                // Replicas stream from the binlog, which needs automated backups on the source
+                rdsArgs.backupRetentionPeriod(config.getInteger("rdsBackupRetentionPeriod").orElse(1));
+            }
+            this.rdsInstance = new Instance(region.resourceName("myRDSInstance"), rdsArgs.build(), child);
+
+            // Read replicas take read traffic off the primary
+            List<Output<String>> replicaAddresses = new ArrayList<>();
+            for (int i = 0; i < rdsReadReplicas; i++) {
+                var replica = new Instance(region.resourceName("myRDSReadReplica" + i), InstanceArgs.builder()
+                        .replicateSourceDb(rdsInstance.identifier())
+                        .instanceClass(rdsReplicaInstanceClass)
+                        .identifier(rdsInstanceIdentifier + "-replica-" + i)
+                        .skipFinalSnapshot(true)
+                        .publiclyAccessible(false)
+                        .parameterGroupName(replicaParameterGroup.name())
+                        .port(databasePort)
+                        .vpcSecurityGroupIds(network.rdsSecurityGroupId().applyValue(Collections::singletonList))
+                        .tags(Map.of("Name", "myRDSReadReplica" + i))
+                        .build(), child);
+                replicaAddresses.add(replica.address());
+            }
+
+            this.writerEndpoint = rdsProxyEnabled
+                    ? createProxy(config, network, databasePort, rdsUsername, rdsPassword, child)
+                    : rdsInstance.address();
+
+            // Comma separated so the MariaDB driver can balance across every replica
+            this.readerEndpoint = replicaAddresses.isEmpty()
+                    ? writerEndpoint
+                    : Output.all(replicaAddresses).applyValue(addresses -> String.join(",", addresses));
+        }
+
+        this.registerOutputs(Map.<String, Output<?>>of(
+                "rdsAddress", rdsInstance.address(),
+                "writerEndpoint", writerEndpoint,
+                "readerEndpoint", readerEndpoint));
+    }
+
+    /**
+     * Storage type ({@code rdsStorageType}: gp2, gp3, io1 or io2), provisioned IOPS and
+     * throughput, and the ceiling storage autoscaling may grow the volume to
+     * ({@code rdsMaxAllocatedStorage}). RDS only lets gp3 volumes of 400 GiB or more set IOPS
+     * and throughput; smaller ones get a 3000 IOPS, 125 MiB/s baseline.
+     */
+    private static void configureStorage(Config config, int rdsAllocatedStorage, InstanceArgs.Builder rdsArgs) {
+        Optional<String> storageType = config.get("rdsStorageType");
+        Optional<Integer> iops = config.getInteger("rdsIops");
+        Optional<Integer> throughput = config.getInteger("rdsStorageThroughput");
+        storageType.ifPresent(rdsArgs::storageType);
+        if (storageType.filter(type -> type.startsWith("io")).isPresent()) {
+            rdsArgs.iops(iops.orElseThrow(() -> new IllegalArgumentException("rdsStorageType io1/io2 needs rdsIops")));
+        } else if (storageType.filter("gp3"::equals).isPresent()) {
+            if ((iops.isPresent() || throughput.isPresent()) && rdsAllocatedStorage < 400) {
+                throw new IllegalArgumentException("rdsIops and rdsStorageThroughput need rdsAllocatedStorage of at least 400 on gp3");
+            }
+            iops.ifPresent(rdsArgs::iops);
+            throughput.ifPresent(rdsArgs::storageThroughput);
+        } else if (iops.isPresent() || throughput.isPresent()) {
+            throw new IllegalArgumentException("rdsIops and rdsStorageThroughput need rdsStorageType gp3, io1 or io2");
+        }
+        config.getInteger("rdsMaxAllocatedStorage").ifPresent(max -> {
+            if (max <= rdsAllocatedStorage) {
+                throw new IllegalArgumentException("rdsMaxAllocatedStorage must be larger than rdsAllocatedStorage");
+            }
+            rdsArgs.maxAllocatedStorage(max);
+        });
+    }
+
+    /**
+     * Role Enhanced Monitoring assumes to publish OS metrics to CloudWatch Logs.
+     */
+    private static Role createMonitoringRole(CustomResourceOptions child) {
+        final var monitoringAssumeRole = IamFunctions.getPolicyDocument(GetPolicyDocumentArgs.builder()
+                .statements(GetPolicyDocumentStatementArgs.builder()
+                        .effect("Allow")
+                        .principals(GetPolicyDocumentStatementPrincipalArgs.builder()
+                                .type("Service")
+                                .identifiers("monitoring.rds.amazonaws.com")
+                                .build())
+                        .actions("sts:AssumeRole")
+                        .build())
+                .build());
+
+        return new Role("rdsMonitoringRole", RoleArgs.builder()
+                .assumeRolePolicy(monitoringAssumeRole.applyValue(GetPolicyDocumentResult::json))
+                .managedPolicyArns("arn:aws:iam::aws:policy/service-role/AmazonRDSEnhancedMonitoringRole")
+                .build(), child);
+    }
+
+    /**
+     * RDS Proxy in the private subnets in front of the primary, so instances reuse pooled
+     * connections instead of opening new ones on every scale-out. Returns the proxy endpoint.
+     */
+    private Output<String> createProxy(Config config, Network network, int databasePort,
+                                       String rdsUsername, Output<String> rdsPassword, CustomResourceOptions child) {
+        var proxySecurityGroup = new SecurityGroup("rdsProxySecurityGroup", SecurityGroupArgs.builder()
+                .vpcId(network.vpcId())
+                .tags(Map.of("Name", "rdsProxySecurityGroup"))
+                .build(), child);
+
+        // Proxy accepts connections from the application instances only
+        new SecurityGroupRule("InboundRuleForRDSProxyOn " + databasePort, SecurityGroupRuleArgs.builder()
+                .type("ingress")
+                .fromPort(databasePort)
+                .toPort(databasePort)
+                .protocol("tcp")
+                .sourceSecurityGroupId(network.securityGroupForEC2Id())
+                .securityGroupId(proxySecurityGroup.id())
+                .build(), child);
+
+        new SecurityGroupRule("OutboundRuleForRDSProxyOn " + databasePort, SecurityGroupRuleArgs.builder()
+                .type("egress")
+                .fromPort(databasePort)
+                .toPort(databasePort)
+                .protocol("tcp")
+                .sourceSecurityGroupId(network.rdsSecurityGroupId())
+                .securityGroupId(proxySecurityGroup.id())
+                .build(), child);
+
+        new SecurityGroupRule("InboundRuleForRDSFromProxyOn " + databasePort, SecurityGroupRuleArgs.builder()
+                .type("ingress")
+                .fromPort(databasePort)
+                .toPort(databasePort)
+                .protocol("tcp")
+                .sourceSecurityGroupId(proxySecurityGroup.id())
+                .securityGroupId(network.rdsSecurityGroupId())
+                .build(), child);
+
+        // The proxy authenticates to the database with credentials from Secrets Manager
+        var credentials = new Secret("rdsProxyCredentials", SecretArgs.builder()
+                .recoveryWindowInDays(0)
+                .build(), child);
+
+        new SecretVersion("rdsProxyCredentialsVersion", SecretVersionArgs.builder()
+                .secretId(credentials.id())
+                // Serialized inside applyValue so the password stays escaped and marked secret
+                .secretString(rdsPassword.applyValue(password -> {
+                    var secret = new JsonObject();
+                    secret.addProperty("username", rdsUsername);
+                    secret.addProperty("password", password);
+                    return secret.toString();
+                }))
+                .build(), child);
+
+        final var proxyAssumeRole = IamFunctions.getPolicyDocument(GetPolicyDocumentArgs.builder()
+                .statements(GetPolicyDocumentStatementArgs.builder()
+                        .effect("Allow")
+                        .principals(GetPolicyDocumentStatementPrincipalArgs.builder()
+                                .type("Service")
+                                .identifiers("rds.amazonaws.com")
+                                .build())
+                        .actions("sts:AssumeRole")
+                        .build())
+                .build());
+
+        var proxyRole = new Role("rdsProxyRole", RoleArgs.builder()
+                .assumeRolePolicy(proxyAssumeRole.applyValue(GetPolicyDocumentResult::json))
+                .build(), child);
+
+        new RolePolicy("rdsProxySecretAccess", RolePolicyArgs.builder()
+                .role(proxyRole.id())
+                .policy(credentials.arn().applyValue(arn -> String.format(
+                        "{\"Version\":\"2012-10-17\",\"Statement\":[{\"Effect\":\"Allow\"," +
+                                "\"Action\":\"secretsmanager:GetSecretValue\",\"Resource\":\"%s\"}]}", arn)))
+                .build(), child);
+
+        var proxy = new Proxy("rdsProxy", ProxyArgs.builder()
+                .name(config.get("rdsProxyName").orElse("webapp-rds-proxy"))
+                .engineFamily("MYSQL")
+                .roleArn(proxyRole.arn())
+                .requireTls(false)
+                .idleClientTimeout(config.getInteger("rdsProxyIdleClientTimeout").orElse(1800))
+                .vpcSubnetIds(network.dataSubnetIds())
+                .vpcSecurityGroupIds(proxySecurityGroup.id().applyValue(Collections::singletonList))
+                .auths(ProxyAuthArgs.builder()
+                        .authScheme("SECRETS")
+                        .iamAuth("DISABLED")
+                        .secretArn(credentials.arn())
+                        .build())
+                .tags(Map.of("Name", "rdsProxy"))
+                .build(), child);
+
+        var proxyTargetGroup = new ProxyDefaultTargetGroup("rdsProxyTargetGroup", ProxyDefaultTargetGroupArgs.builder()
+                .dbProxyName(proxy.name())
+                .connectionPoolConfig(ProxyDefaultTargetGroupConnectionPoolConfigArgs.builder()
+                        .maxConnectionsPercent(config.getInteger("rdsProxyMaxConnectionsPercent").orElse(90))
+                        .maxIdleConnectionsPercent(config.getInteger("rdsProxyMaxIdleConnectionsPercent").orElse(50))
+                        .connectionBorrowTimeout(config.getInteger("rdsProxyConnectionBorrowTimeout").orElse(120))
+                        .build())
+                .build(), child);
+
+        new ProxyTarget("rdsProxyTarget", ProxyTargetArgs.builder()
+                .dbProxyName(proxy.name())
+                .targetGroupName(proxyTargetGroup.name())
+                .dbInstanceIdentifier(rdsInstance.identifier())
+                .build(), child);
+
+        return proxy.endpoint();
+    }
+
+    Instance rdsInstance() {
+        return rdsInstance;
+    }
+
+    /**
+     * Host the application writes through: the proxy when enabled, otherwise the primary.
+     */
+    @Override
+    public Output<String> writerEndpoint() {
+        return writerEndpoint;
+    }
+
+    /**
+     * Comma separated replica hosts, or the writer endpoint when there are no replicas.
+     */
+    @Override
+    public Output<String> readerEndpoint() {
+        return readerEndpoint;
+    }
+
+    @Override
+    public Output<String> instanceIdentifier() {
+        return rdsInstance.identifier();
+    }
+}
@@ -0,0 +1,19 @@
+package myproject;
+
+import com.pulumi.core.Output;
+
+/**
+ * Connection endpoints of the webapp database, provided either by a {@link DataComponent}
+ * in the same program or by the outputs of a separate data stack.
+ */
+interface Database {
+
+    Output<String> writerEndpoint();
+
+    /**
+     * Comma separated replica addresses, or the writer when there are no replicas.
+     */
+    Output<String> readerEndpoint();
+
+    Output<String> instanceIdentifier();
+}
@@ -0,0 +1,130 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.dax.Cluster;
+import com.pulumi.aws.dax.ClusterArgs;
+import com.pulumi.aws.dax.ParameterGroup;
+import com.pulumi.aws.dax.ParameterGroupArgs;
+import com.pulumi.aws.dax.SubnetGroup;
+import com.pulumi.aws.dax.SubnetGroupArgs;
+import com.pulumi.aws.dax.inputs.ClusterServerSideEncryptionArgs;
+import com.pulumi.aws.dax.inputs.ParameterGroupParameterArgs;
+import com.pulumi.aws.dynamodb.Table;
+import com.pulumi.aws.ec2.SecurityGroup;
+import com.pulumi.aws.ec2.SecurityGroupArgs;
+import com.pulumi.aws.ec2.SecurityGroupRule;
+import com.pulumi.aws.ec2.SecurityGroupRuleArgs;
+import com.pulumi.aws.iam.IamFunctions;
+import com.pulumi.aws.iam.Role;
+import com.pulumi.aws.iam.RoleArgs;
+import com.pulumi.aws.iam.RolePolicy;
+import com.pulumi.aws.iam.RolePolicyArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementPrincipalArgs;
+import com.pulumi.aws.iam.outputs.GetPolicyDocumentResult;
+import com.pulumi.core.Output;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * DAX cluster in the cache subnets caching reads of the email tracking table,
+ * including lookups through its secondary index. Only clients in {@code clientSecurityGroup}
+ * can reach it.
+ */
+final class DaxAccelerator {
+
+    private static final int DAX_PORT = 8111;
+
+    private final Cluster cluster;
+
+    DaxAccelerator(Config config, Network network, Table table, SecurityGroup clientSecurityGroup,
+                   CustomResourceOptions child) {
+        String daxNodeType = config.get("daxNodeType").orElse("dax.t3.small");
+        int daxReplicationFactor = config.getInteger("daxReplicationFactor").orElse(1);
+        int daxItemTtlMillis = config.getInteger("daxItemTtlMillis").orElse(300000);
+        int daxQueryTtlMillis = config.getInteger("daxQueryTtlMillis").orElse(300000);
+
+        var daxSecurityGroup = new SecurityGroup("daxSecurityGroup", SecurityGroupArgs.builder()
+                .vpcId(network.vpcId())
+                .tags(Map.of("Name", "daxSecurityGroup"))
+                .build(), child);
+
+        new SecurityGroupRule("InboundRuleForDAXOn " + DAX_PORT, SecurityGroupRuleArgs.builder()
+                .type("ingress")
+                .fromPort(DAX_PORT)
+                .toPort(DAX_PORT)
+                .protocol("tcp")
+                .sourceSecurityGroupId(clientSecurityGroup.id())
+                .securityGroupId(daxSecurityGroup.id())
+                .build(), child);
+
+        final var daxAssumeRole = IamFunctions.getPolicyDocument(GetPolicyDocumentArgs.builder()
+                .statements(GetPolicyDocumentStatementArgs.builder()
+                        .effect("Allow")
+                        .principals(GetPolicyDocumentStatementPrincipalArgs.builder()
+                                .type("Service")
+                                .identifiers("dax.amazonaws.com")
+                                .build())
+                        .actions("sts:AssumeRole")
+                        .build())
+                .build());
+
+        var daxRole = new Role("daxRole", RoleArgs.builder()
+                .assumeRolePolicy(daxAssumeRole.applyValue(GetPolicyDocumentResult::json))
+                .build(), child);
+
+        // DAX reads and writes through to the table and its indexes on behalf of clients
+        new RolePolicy("daxTableAccess", RolePolicyArgs.builder()
+                .role(daxRole.id())
+                .policy(table.arn().applyValue(arn -> String.format(
+                        "{\"Version\":\"2012-10-17\",\"Statement\":[{\"Effect\":\"Allow\"," +
+                                "\"Action\":[\"dynamodb:GetItem\",\"dynamodb:BatchGetItem\",\"dynamodb:Query\",\"dynamodb:Scan\"," +
+                                "\"dynamodb:PutItem\",\"dynamodb:UpdateItem\",\"dynamodb:DeleteItem\",\"dynamodb:BatchWriteItem\"," +
+                                "\"dynamodb:ConditionCheckItem\",\"dynamodb:DescribeTable\"]," +
+                                "\"Resource\":[\"%1$s\",\"%1$s/index/*\"]}]}", arn)))
+                .build(), child);
+
+        var daxSubnetGroup = new SubnetGroup("daxSubnetGroup", SubnetGroupArgs.builder()
+                .subnetIds(network.cacheSubnetIds())
+                .build(), child);
+
+        var daxParameterGroup = new ParameterGroup("daxParameterGroup", ParameterGroupArgs.builder()
+                .parameters(ParameterGroupParameterArgs.builder()
+                                .name("record-ttl-millis")
+                                .value(String.valueOf(daxItemTtlMillis))
+                                .build(),
+                        ParameterGroupParameterArgs.builder()
+                                .name("query-ttl-millis")
+                                .value(String.valueOf(daxQueryTtlMillis))
+                                .build())
+                .build(), child);
+
+        this.cluster = new Cluster("emailTrackingDax", ClusterArgs.builder()
+                .clusterName(config.get("daxClusterName").orElse("email-tracking-dax"))
+                .nodeType(daxNodeType)
+                .replicationFactor(daxReplicationFactor)
+                .iamRoleArn(daxRole.arn())
+                .subnetGroupName(daxSubnetGroup.name())
+                .parameterGroupName(daxParameterGroup.name())
+                .securityGroupIds(daxSecurityGroup.id().applyValue(Collections::singletonList))
+                .serverSideEncryption(ClusterServerSideEncryptionArgs.builder()
+                        .enabled(true)
+                        .build())
+                .tags(Map.of("Name", "emailTrackingDax"))
+                .build(), child);
+    }
+
+    Output<String> arn() {
+        return cluster.arn();
+    }
+
+    /**
+     * Cluster discovery endpoint ({@code host:port}) for the DAX client.
+     */
+    Output<String> endpoint() {
+        return cluster.configurationEndpoint();
+    }
+}
@@ -0,0 +1,169 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.cloudfront.CachePolicy;
+import com.pulumi.aws.cloudfront.CachePolicyArgs;
+import com.pulumi.aws.cloudfront.Distribution;
+import com.pulumi.aws.cloudfront.DistributionArgs;
+import com.pulumi.aws.cloudfront.OriginRequestPolicy;
+import com.pulumi.aws.cloudfront.OriginRequestPolicyArgs;
+import com.pulumi.aws.cloudfront.inputs.*;
+import com.pulumi.aws.lb.LoadBalancer;
+import com.pulumi.core.Output;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CloudFront distribution in front of the load balancer. Paths listed in
+ * {@code cdnCacheBehaviors} ({@code pattern|ttlSeconds} entries separated by ';') are cached
+ * at the edge; everything else passes through uncached with all viewer headers, so the
+ * application behaves as it does behind the load balancer alone.
+ */
+final class EdgeDistribution {
+
+    // AWS managed policies for the pass-through default behavior
+    private static final String CACHING_DISABLED = "4135ea2d-6df8-44a3-9df3-4b5a84be39ad";
+    private static final String ALL_VIEWER = "216adef6-5c7f-47e4-b989-5492eafa07d3";
+
+    private static final String ORIGIN_ID = "loadBalancer";
+
+    private final Distribution distribution;
+
+    EdgeDistribution(Config config, Region region, LoadBalancer loadBalancer, CustomResourceOptions child) {
+        String domainName = config.require("domainName");
+        // Viewer certificates must live in us-east-1
+        String certificateArn = config.get("cdnCertificateArn").orElseGet(() -> region.require(config, "certificateArn"));
+        String policyPrefix = domainName.replace('.', '-');
+
+        // Cached paths still forward Host, which the load balancer certificate is checked against
+        List<String> forwardHeaders = new ArrayList<>(List.of("Host"));
+        config.get("cdnForwardHeaders").ifPresent(headers -> Arrays.stream(headers.split(","))
+                .map(String::trim)
+                .forEach(forwardHeaders::add));
+        var originRequestPolicy = new OriginRequestPolicy(region.resourceName("cdnOriginRequestPolicy"), OriginRequestPolicyArgs.builder()
+                .name(policyPrefix + "-origin-request")
+                .headersConfig(OriginRequestPolicyHeadersConfigArgs.builder()
+                        .headerBehavior("whitelist")
+                        .headers(OriginRequestPolicyHeadersConfigHeadersArgs.builder()
+                                .items(forwardHeaders)
+                                .build())
+                        .build())
+                .cookiesConfig(OriginRequestPolicyCookiesConfigArgs.builder()
+                        .cookieBehavior("none")
+                        .build())
+                .queryStringsConfig(OriginRequestPolicyQueryStringsConfigArgs.builder()
+                        .queryStringBehavior("all")
+                        .build())
+                .build(), child);
+
+        // One cache policy per distinct TTL, shared by the paths that use it
+        Map<Integer, CachePolicy> cachePolicies = new HashMap<>();
+        List<DistributionOrderedCacheBehaviorArgs> behaviors = new ArrayList<>();
+        for (String entry : config.get("cdnCacheBehaviors").map(value -> value.split(";")).orElse(new String[0])) {
+            String[] fields = entry.trim().split("\\|");
+            if (fields.length != 2) {
+                throw new IllegalArgumentException("cdnCacheBehaviors entry '" + entry + "' is not pattern|ttlSeconds");
+            }
+            int ttl = Integer.parseInt(fields[1].trim());
+            var cachePolicy = cachePolicies.computeIfAbsent(ttl, seconds -> cachePolicy(policyPrefix, seconds, region, child));
+            behaviors.add(DistributionOrderedCacheBehaviorArgs.builder()
+                    .pathPattern(fields[0].trim())
+                    .targetOriginId(ORIGIN_ID)
+                    .allowedMethods("GET", "HEAD", "OPTIONS")
+                    .cachedMethods("GET", "HEAD")
+                    .cachePolicyId(cachePolicy.id())
+                    .originRequestPolicyId(originRequestPolicy.id())
+                    .compress(true)
+                    .viewerProtocolPolicy("redirect-to-https")
+                    .build());
+        }
+
+        var origin = DistributionOriginArgs.builder()
+                .originId(ORIGIN_ID)
+                .domainName(loadBalancer.dnsName())
+                .customOriginConfig(DistributionOriginCustomOriginConfigArgs.builder()
+                        .httpPort(80)
+                        .httpsPort(443)
+                        .originProtocolPolicy("https-only")
+                        .originSslProtocols("TLSv1.2")
+                        .originKeepaliveTimeout(config.getInteger("cdnOriginKeepaliveTimeout").orElse(60))
+                        .originReadTimeout(config.getInteger("cdnOriginReadTimeout").orElse(30))
+                        .build());
+        if (config.getBoolean("cdnOriginShield").orElse(true)) {
+            // A regional cache in front of the origin collapses misses from every edge location
+            origin.originShield(DistributionOriginOriginShieldArgs.builder()
+                    .enabled(true)
+                    .originShieldRegion(config.get("cdnOriginShieldRegion").orElse(region.name()))
+                    .build());
+        }
+
+        this.distribution = new Distribution(region.resourceName("cdnDistribution"), DistributionArgs.builder()
+                .enabled(true)
+                .isIpv6Enabled(true)
+                .httpVersion("http2and3")
+                .priceClass(config.get("cdnPriceClass").orElse("PriceClass_100"))
+                .aliases(domainName)
+                .origins(origin.build())
+                .defaultCacheBehavior(DistributionDefaultCacheBehaviorArgs.builder()
+                        .targetOriginId(ORIGIN_ID)
+                        .allowedMethods("GET", "HEAD", "OPTIONS", "PUT", "POST", "PATCH", "DELETE")
+                        .cachedMethods("GET", "HEAD")
+                        .cachePolicyId(CACHING_DISABLED)
+                        .originRequestPolicyId(ALL_VIEWER)
+                        .compress(true)
+                        .viewerProtocolPolicy("redirect-to-https")
+                        .build())
+                .orderedCacheBehaviors(behaviors)
+                .restrictions(DistributionRestrictionsArgs.builder()
+                        .geoRestriction(DistributionRestrictionsGeoRestrictionArgs.builder()
+                                .restrictionType("none")
+                                .build())
+                        .build())
+                .viewerCertificate(DistributionViewerCertificateArgs.builder()
+                        .acmCertificateArn(certificateArn)
+                        .sslSupportMethod("sni-only")
+                        .minimumProtocolVersion("TLSv1.2_2021")
+                        .build())
+                .tags(Map.of("Name", "cdnDistribution"))
+                .build(), child);
+    }
+
+    /**
+     * Caches for {@code ttl} seconds, or less when the origin sends a shorter Cache-Control,
+     * keyed on the path and query string and stored compressed per encoding.
+     */
+    private static CachePolicy cachePolicy(String policyPrefix, int ttl, Region region, CustomResourceOptions child) {
+        return new CachePolicy(region.resourceName("cdnCachePolicy" + ttl), CachePolicyArgs.builder()
+                .name(policyPrefix + "-ttl-" + ttl)
+                .minTtl(0)
+                .defaultTtl(ttl)
+                .maxTtl(ttl)
+                .parametersInCacheKeyAndForwardedToOrigin(CachePolicyParametersInCacheKeyAndForwardedToOriginArgs.builder()
+                        .enableAcceptEncodingGzip(true)
+                        .enableAcceptEncodingBrotli(true)
+                        .cookiesConfig(CachePolicyParametersInCacheKeyAndForwardedToOriginCookiesConfigArgs.builder()
+                                .cookieBehavior("none")
+                                .build())
+                        .headersConfig(CachePolicyParametersInCacheKeyAndForwardedToOriginHeadersConfigArgs.builder()
+                                .headerBehavior("none")
+                                .build())
+                        .queryStringsConfig(CachePolicyParametersInCacheKeyAndForwardedToOriginQueryStringsConfigArgs.builder()
+                                .queryStringBehavior("all")
+                                .build())
+                        .build())
+                .build(), child);
+    }
+
+    Output<String> domainName() {
+        return distribution.domainName();
+    }
+
+    Output<String> hostedZoneId() {
+        return distribution.hostedZoneId();
+    }
+}
@@ -0,0 +1,145 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.appautoscaling.Policy;
+import com.pulumi.aws.appautoscaling.PolicyArgs;
+import com.pulumi.aws.appautoscaling.Target;
+import com.pulumi.aws.appautoscaling.TargetArgs;
+import com.pulumi.aws.appautoscaling.inputs.PolicyTargetTrackingScalingPolicyConfigurationArgs;
+import com.pulumi.aws.appautoscaling.inputs.PolicyTargetTrackingScalingPolicyConfigurationPredefinedMetricSpecificationArgs;
+import com.pulumi.aws.dynamodb.Table;
+import com.pulumi.aws.dynamodb.TableArgs;
+import com.pulumi.aws.dynamodb.inputs.TableAttributeArgs;
+import com.pulumi.aws.dynamodb.inputs.TableGlobalSecondaryIndexArgs;
+import com.pulumi.aws.dynamodb.inputs.TableTtlArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.CustomResourceOptions;
+import com.pulumi.resources.Resource;
+
+import java.util.Arrays;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * DynamoDB table the Lambda tracks sent emails in. Capacity is either on-demand
+ * ({@code dynamoBillingMode: PAY_PER_REQUEST}) or provisioned, optionally with
+ * target-tracking auto scaling on the table and its {@code SubmissionId_Status} index.
+ */
+final class EmailTrackingTable {
+
+    private static final String INDEX_NAME = "SubmissionId_Status";
+
+    private final Table table;
+
+    EmailTrackingTable(Config config, CapacityPlan plan, Resource parent) {
+        String billingMode = config.get("dynamoBillingMode").orElse("PROVISIONED");
+        if (!billingMode.equals("PROVISIONED") && !billingMode.equals("PAY_PER_REQUEST")) {
+            throw new IllegalArgumentException("dynamoBillingMode must be PROVISIONED or PAY_PER_REQUEST, got " + billingMode);
+        }
+        boolean onDemand = billingMode.equals("PAY_PER_REQUEST");
+        int readCapacity = plan.dynamoReadCapacity();
+        int writeCapacity = plan.dynamoWriteCapacity();
+        int indexReadCapacity = config.getInteger("dynamoIndexReadCapacity").orElse(readCapacity);
+        int indexWriteCapacity = config.getInteger("dynamoIndexWriteCapacity").orElse(writeCapacity);
+        int maxReadCapacity = plan.dynamoMaxReadCapacity();
+        int maxWriteCapacity = plan.dynamoMaxWriteCapacity();
+        double targetUtilization = config.getDouble("dynamoTargetUtilization").orElse(70.0);
+        // KEYS_ONLY or INCLUDE keep index writes small; ALL copies every attribute
+        String indexProjection = config.get("dynamoIndexProjection").orElse("ALL");
+        boolean autoscaling = !onDemand && (maxReadCapacity > readCapacity || maxWriteCapacity > writeCapacity);
+
+        var index = TableGlobalSecondaryIndexArgs.builder()
+                .name(INDEX_NAME)
+                .hashKey("Submission_id")
+                .rangeKey("Status")
+                .projectionType(indexProjection);
+        if ("INCLUDE".equals(indexProjection)) {
+            index.nonKeyAttributes(Arrays.stream(config.require("dynamoIndexNonKeyAttributes").split(","))
+                    .map(String::trim)
+                    .collect(toList()));
+        }
+
+        var tableArgs = TableArgs.builder()
+                .attributes(TableAttributeArgs.builder()
+                                .name("Email")
+                                .type("S")
+                                .build(),
+                        TableAttributeArgs.builder()
+                                .name("Timestamp")
+                                .type("S")
+                                .build(),
+                        TableAttributeArgs.builder()
+                                .name("Submission_id")
+                                .type("S")
+                                .build(),
+                        TableAttributeArgs.builder()
+                                .name("Status")
+                                .type("S")
+                                .build())
+                .hashKey("Email")
+                .rangeKey("Timestamp");
+        if (onDemand) {
+            tableArgs.billingMode("PAY_PER_REQUEST");
+        } else {
+            index.readCapacity(indexReadCapacity).writeCapacity(indexWriteCapacity);
+            tableArgs.billingMode("PROVISIONED").readCapacity(readCapacity).writeCapacity(writeCapacity);
+        }
+        // Expired tracking rows are deleted by DynamoDB at no write cost
+        config.get("dynamoTtlAttribute").ifPresent(ttlAttribute -> tableArgs.ttl(TableTtlArgs.builder()
+                .attributeName(ttlAttribute)
+                .enabled(true)
+                .build()));
+        tableArgs.globalSecondaryIndexes(index.build());
+
+        // Auto scaling owns the table's provisioned capacity once enabled, so later updates must
+        // not reset it. Indexes are a set, where per-field ignore paths are unreliable, so an
+        // update sets the index back to its minimum and its scaling policy raises it again
+        var tableOptions = Region.child(parent);
+        if (autoscaling) {
+            tableOptions.ignoreChanges("readCapacity", "writeCapacity");
+        }
+        this.table = new Table("EmailTrackingTable", tableArgs.build(), tableOptions.build());
+
+        if (autoscaling) {
+            var child = Region.child(parent).build();
+            Output<String> tableResource = table.name().applyValue(name -> "table/" + name);
+            Output<String> indexResource = table.name().applyValue(name -> "table/" + name + "/index/" + INDEX_NAME);
+            scale("EmailTrackingTableRead", tableResource, "dynamodb:table:ReadCapacityUnits",
+                    "DynamoDBReadCapacityUtilization", readCapacity, maxReadCapacity, targetUtilization, child);
+            scale("EmailTrackingTableWrite", tableResource, "dynamodb:table:WriteCapacityUnits",
+                    "DynamoDBWriteCapacityUtilization", writeCapacity, maxWriteCapacity, targetUtilization, child);
+            scale("EmailTrackingIndexRead", indexResource, "dynamodb:index:ReadCapacityUnits",
+                    "DynamoDBReadCapacityUtilization", indexReadCapacity, Math.max(indexReadCapacity, maxReadCapacity), targetUtilization, child);
+            scale("EmailTrackingIndexWrite", indexResource, "dynamodb:index:WriteCapacityUnits",
+                    "DynamoDBWriteCapacityUtilization", indexWriteCapacity, Math.max(indexWriteCapacity, maxWriteCapacity), targetUtilization, child);
+        }
+    }
+
+    private static void scale(String name, Output<String> resourceId, String dimension, String metric,
+                              int minCapacity, int maxCapacity, double targetUtilization, CustomResourceOptions child) {
+        var target = new Target(name + "Target", TargetArgs.builder()
+                .serviceNamespace("dynamodb")
+                .resourceId(resourceId)
+                .scalableDimension(dimension)
+                .minCapacity(minCapacity)
+                .maxCapacity(maxCapacity)
+                .build(), child);
+
+        new Policy(name + "Policy", PolicyArgs.builder()
+                .policyType("TargetTrackingScaling")
+                .serviceNamespace(target.serviceNamespace())
+                .resourceId(target.resourceId())
+                .scalableDimension(target.scalableDimension())
+                .targetTrackingScalingPolicyConfiguration(PolicyTargetTrackingScalingPolicyConfigurationArgs.builder()
+                        .targetValue(targetUtilization)
+                        .predefinedMetricSpecification(PolicyTargetTrackingScalingPolicyConfigurationPredefinedMetricSpecificationArgs.builder()
+                                .predefinedMetricType(metric)
+                                .build())
+                        .build())
+                .build(), child);
+    }
+
+    Table table() {
+        return table;
+    }
+}
@@ -0,0 +1,171 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.autoscaling.Group;
+import com.pulumi.aws.autoscaling.Policy;
+import com.pulumi.aws.autoscaling.PolicyArgs;
+import com.pulumi.aws.autoscaling.Schedule;
+import com.pulumi.aws.autoscaling.ScheduleArgs;
+import com.pulumi.aws.autoscaling.inputs.*;
+import com.pulumi.aws.cloudwatch.MetricAlarm;
+import com.pulumi.aws.cloudwatch.MetricAlarmArgs;
+import com.pulumi.aws.lb.LoadBalancer;
+import com.pulumi.aws.lb.TargetGroup;
+import com.pulumi.core.Output;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.Collections;
+
+/**
+ * Scaling policies for the webapp auto scaling group.
+ * <p>
+ * {@code asgScalingMode: step} keeps the original one-instance CPU step policies.
+ * {@code asgScalingMode: target} tracks average CPU ({@code asgCpuTarget}) and, when
+ * {@code asgRequestsPerTarget} is set, ALB requests per target, so capacity moves in
+ * proportion to load. Predictive scaling and scheduled actions can be layered on either mode.
+ */
+final class FleetScaling {
+
+    FleetScaling(Config config, Region region, Group asg, LoadBalancer loadBalancer, TargetGroup targetGroup,
+                 CustomResourceOptions child) {
+        String asgScalingMode = config.get("asgScalingMode").orElse("step");
+        if ("target".equals(asgScalingMode)) {
+            targetTracking(config, region, asg, loadBalancer, targetGroup, child);
+        } else {
+            stepScaling(config.require("metricName"), region, asg, child);
+        }
+
+        if (config.getBoolean("asgPredictiveScaling").orElse(false)) {
+            // Forecasts from the last two weeks of CPU and launches ahead of the daily ramp
+            new Policy(region.resourceName("predictivePolicy"), PolicyArgs.builder()
+                    .autoscalingGroupName(asg.name())
+                    .policyType("PredictiveScaling")
+                    .predictiveScalingConfiguration(PolicyPredictiveScalingConfigurationArgs.builder()
+                            .mode(config.get("asgPredictiveMode").orElse("ForecastOnly"))
+                            .schedulingBufferTime(String.valueOf(config.requireInteger("instanceWarmUpTime")))
+                            .metricSpecification(PolicyPredictiveScalingConfigurationMetricSpecificationArgs.builder()
+                                    .targetValue(config.getDouble("asgCpuTarget").orElse(50.0))
+                                    .predefinedMetricPairSpecification(PolicyPredictiveScalingConfigurationMetricSpecificationPredefinedMetricPairSpecificationArgs.builder()
+                                            .predefinedMetricType("ASGCPUUtilization")
+                                            .build())
+                                    .build())
+                            .build())
+                    .build(), child);
+        }
+
+        // asgScheduledActions: name|cron|min|max|desired entries separated by ';'
+        config.get("asgScheduledActions").ifPresent(actions -> {
+            String timeZone = config.get("asgScheduleTimeZone").orElse("Etc/UTC");
+            for (String action : actions.split(";")) {
+                String[] fields = action.trim().split("\\|", -1);
+                if (fields.length != 5 || fields[0].isBlank() || fields[1].isBlank()) {
+                    throw new IllegalArgumentException("asgScheduledActions entry '" + action.trim() + "' is not name|cron|min|max|desired");
+                }
+                int minSize = scheduledSize(action, fields[2]);
+                int maxSize = scheduledSize(action, fields[3]);
+                int desired = scheduledSize(action, fields[4]);
+                if (minSize > maxSize || desired < minSize || desired > maxSize) {
+                    throw new IllegalArgumentException("asgScheduledActions entry '" + action.trim() + "' needs min <= desired <= max");
+                }
+                new Schedule(region.resourceName(fields[0]), ScheduleArgs.builder()
+                        .scheduledActionName(fields[0])
+                        .autoscalingGroupName(asg.name())
+                        .recurrence(fields[1])
+                        .timeZone(timeZone)
+                        .minSize(minSize)
+                        .maxSize(maxSize)
+                        .desiredCapacity(desired)
+                        .build(), child);
+            }
+        });
+    }
+
+    private static int scheduledSize(String action, String field) {
+        try {
+            int size = Integer.parseInt(field.trim());
+            if (size >= 0) {
+                return size;
+            }
+        } catch (NumberFormatException e) {
+            // reported below with the entry
+        }
+        throw new IllegalArgumentException("asgScheduledActions entry '" + action.trim() + "' has size '" + field + "', expected a non-negative integer");
+    }
+
+    private static void targetTracking(Config config, Region region, Group asg, LoadBalancer loadBalancer, TargetGroup targetGroup,
+                                       CustomResourceOptions child) {
+        new Policy(region.resourceName("cpuTargetPolicy"), PolicyArgs.builder()
+                .autoscalingGroupName(asg.name())
+                .policyType("TargetTrackingScaling")
+                .targetTrackingConfiguration(PolicyTargetTrackingConfigurationArgs.builder()
+                        .targetValue(config.getDouble("asgCpuTarget").orElse(50.0))
+                        .predefinedMetricSpecification(PolicyTargetTrackingConfigurationPredefinedMetricSpecificationArgs.builder()
+                                .predefinedMetricType("ASGAverageCPUUtilization")
+                                .build())
+                        .build())
+                .build(), child);
+
+        config.getDouble("asgRequestsPerTarget").ifPresent(requestsPerTarget -> new Policy(region.resourceName("requestCountTargetPolicy"), PolicyArgs.builder()
+                .autoscalingGroupName(asg.name())
+                .policyType("TargetTrackingScaling")
+                .targetTrackingConfiguration(PolicyTargetTrackingConfigurationArgs.builder()
+                        .targetValue(requestsPerTarget)
+                        .predefinedMetricSpecification(PolicyTargetTrackingConfigurationPredefinedMetricSpecificationArgs.builder()
+                                .predefinedMetricType("ALBRequestCountPerTarget")
+                                // app/<lb>/<id>/targetgroup/<tg>/<id>
+                                .resourceLabel(Output.tuple(loadBalancer.arnSuffix(), targetGroup.arnSuffix()).applyValue(t -> t.t1 + "/" + t.t2))
+                                .build())
+                        .build())
+                .build(), child));
+    }
+
+    private static void stepScaling(String metricName, Region region, Group asg, CustomResourceOptions child) {
+        // ScaleUp policy
+        Policy upPolicy = new Policy(region.resourceName("upPolicy"), PolicyArgs.builder()
+                .autoscalingGroupName(asg.name())
+                .adjustmentType("ChangeInCapacity")
+                .policyType("StepScaling")
+                .stepAdjustments(PolicyStepAdjustmentArgs.builder()
+                        .metricIntervalLowerBound("0")
+                        .scalingAdjustment(1)
+                        .build())
+                .build(), child);
+
+        // ScaleDown policy
+        Policy downPolicy = new Policy(region.resourceName("downPolicy"), PolicyArgs.builder()
+                .autoscalingGroupName(asg.name())
+                .adjustmentType("ChangeInCapacity")
+                .policyType("StepScaling")
+                .stepAdjustments(PolicyStepAdjustmentArgs.builder()
+                        .metricIntervalUpperBound("0")
+                        .scalingAdjustment(-1)
+                        .build())
+                .build(), child);
+
+        // alarm for ScaleUp policy
+        new MetricAlarm(region.resourceName("cpuHigh"), MetricAlarmArgs.builder()
+                .comparisonOperator("GreaterThanThreshold")
+                .evaluationPeriods(1)
+                .metricName(metricName)
+                .namespace("AWS/EC2")
+                .period(60)
+                .statistic("Average")
+                .threshold(10.0)
+                .alarmActions(upPolicy.arn().applyValue(Collections::singletonList))
+                .dimensions(asg.name().applyValue(asgName -> Collections.singletonMap("AutoScalingGroupName", asgName)))
+                .build(), child);
+
+        // alarm for ScaleDown policy
+        new MetricAlarm(region.resourceName("cpuLow"), MetricAlarmArgs.builder()
+                .comparisonOperator("LessThanThreshold")
+                .evaluationPeriods(1)
+                .metricName(metricName)
+                .namespace("AWS/EC2")
+                .period(60)
+                .statistic("Average")
+                .threshold(5.0)
+                .alarmActions(downPolicy.arn().applyValue(Collections::singletonList))
+                .dimensions(asg.name().applyValue(asgName -> Collections.singletonMap("AutoScalingGroupName", asgName)))
+                .build(), child);
+    }
+}
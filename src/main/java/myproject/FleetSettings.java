@@ -0,0 +1,64 @@
+package myproject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Auto scaling group settings that AWS would only reject at apply time, checked while the
+ * program runs so a bad combination fails before anything is created.
+ */
+final class FleetSettings {
+
+    private FleetSettings() {
+    }
+
+    /**
+     * {@code asgWarmPoolSize}, or empty for no warm pool. Groups with a mixed instances
+     * policy or Spot capacity cannot have one.
+     */
+    static Optional<Integer> warmPoolSize(StackSettings config) {
+        int size = config.getInteger("asgWarmPoolSize").orElse(0);
+        if (size <= 0) {
+            return Optional.empty();
+        }
+        if (config.get("instanceTypes").isPresent()) {
+            throw new IllegalArgumentException("asgWarmPoolSize cannot be combined with instanceTypes: "
+                    + "warm pools are not supported on groups with a mixed instances policy");
+        }
+        if (config.getInteger("spotPercentage").orElse(0) > 0) {
+            throw new IllegalArgumentException("asgWarmPoolSize cannot be combined with spotPercentage: "
+                    + "warm pools are not supported on groups with Spot capacity");
+        }
+        return Optional.of(size);
+    }
+
+    /**
+     * {@code asgRefreshCheckpoints} as ascending percentages between 1 and 100, ending at 100
+     * since the refresh stops at the last checkpoint.
+     */
+    static Optional<List<Integer>> refreshCheckpoints(StackSettings config) {
+        return config.get("asgRefreshCheckpoints").map(checkpoints -> {
+            List<Integer> percentages = new ArrayList<>();
+            for (String entry : checkpoints.split(",")) {
+                int percentage;
+                try {
+                    percentage = Integer.parseInt(entry.trim());
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("asgRefreshCheckpoints entry '" + entry.trim() + "' is not a percentage", e);
+                }
+                if (percentage < 1 || percentage > 100) {
+                    throw new IllegalArgumentException("asgRefreshCheckpoints entry " + percentage + " is not between 1 and 100");
+                }
+                if (!percentages.isEmpty() && percentage <= percentages.get(percentages.size() - 1)) {
+                    throw new IllegalArgumentException("asgRefreshCheckpoints must be ascending, got " + checkpoints);
+                }
+                percentages.add(percentage);
+            }
+            if (percentages.get(percentages.size() - 1) != 100) {
+                percentages.add(100);
+            }
+            return percentages;
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package myproject;
+
+import com.pulumi.core.Output;
+import com.pulumi.gcp.serviceAccount.Account;
+import com.pulumi.gcp.serviceAccount.AccountArgs;
+import com.pulumi.gcp.serviceAccount.Key;
+import com.pulumi.gcp.serviceAccount.KeyArgs;
+import com.pulumi.gcp.storage.Bucket;
+import com.pulumi.gcp.storage.BucketArgs;
+import com.pulumi.gcp.storage.BucketIAMBinding;
+import com.pulumi.gcp.storage.BucketIAMBindingArgs;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * GCS bucket the Lambda uploads submissions to, with a service account key it writes with.
+ * Every GCP SDK type is confined to this class so the provider is only loaded when the
+ * stack sets {@code gcp:project}.
+ */
+final class GcpSubmissionStore {
+
+    private final Bucket bucketForAssignment;
+    private final Key myKey;
+
+    GcpSubmissionStore(CustomResourceOptions child) {
+        //creating a bucket
+        this.bucketForAssignment = new Bucket("assignments-bucket",
+                BucketArgs.builder()
+                        .location("US")
+                        .forceDestroy(true)
+                        .build(), child);
+
+        var serviceAccount = new Account("serviceAccountForLambda", AccountArgs.builder()
+                .accountId("service-account-id")
+                .displayName("Service Account For Lambda")
+                .build(), child);
+
+        new BucketIAMBinding("storageAdminForLambda", BucketIAMBindingArgs.builder()
+                .role("roles/storage.objectCreator")
+                .members(serviceAccount.email().applyValue(email -> "serviceAccount:" + email).applyValue(Collections::singletonList))
+                .bucket(bucketForAssignment.id())
+                .build(), child);
+
+        this.myKey = new Key("serviceKeyForLambda", KeyArgs.builder()
+                .serviceAccountId(serviceAccount.name())
+                .build(), child);
+    }
+
+    /**
+     * Environment variables the Lambda needs to upload to the bucket.
+     */
+    Output<Map<String, String>> lambdaEnvironment() {
+        return Output.tuple(bucketForAssignment.name(), myKey.privateKey())
+                .applyValue(t -> {
+                    Map<String, String> env = new HashMap<>();
+                    env.put("submissionStore", "gcs");
+                    env.put("bucketName", t.t1);
+                    env.put("GOOGLE_SERVICE_ACCOUNT_KEY", t.t2);
+                    return env;
+                });
+    }
+}
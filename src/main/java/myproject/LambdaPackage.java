@@ -0,0 +1,115 @@
+package myproject;
+
+import com.pulumi.asset.FileArchive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Deterministic zip of a Lambda source directory, written to {@code target/lambda} under
+ * its SHA-256. Entries are sorted and carry a fixed timestamp, so the same sources always
+ * give the same bytes and hash; {@code sourceCodeHash} and the archive then only change,
+ * and the code is only uploaded, when a file does.
+ */
+final class LambdaPackage {
+
+    private static final Path OUTPUT_DIR = Path.of("target", "lambda");
+    // Earliest time a zip entry can hold; set as local time so the bytes do not depend on the time zone
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    private final Path archive;
+    private final String sourceCodeHash;
+
+    private LambdaPackage(Path archive, String sourceCodeHash) {
+        this.archive = archive;
+        this.sourceCodeHash = sourceCodeHash;
+    }
+
+    static LambdaPackage of(String name, String sourceDir) {
+        Path source = Path.of(sourceDir);
+        if (!Files.isDirectory(source)) {
+            throw new IllegalArgumentException("Lambda source directory " + source.toAbsolutePath() + " does not exist");
+        }
+        try {
+            // An empty directory would deploy a function with no handler
+            try (Stream<Path> walk = Files.walk(source)) {
+                if (walk.noneMatch(Files::isRegularFile)) {
+                    throw new IllegalArgumentException("Lambda source directory " + source.toAbsolutePath() + " has no files");
+                }
+            }
+            Files.createDirectories(OUTPUT_DIR);
+            Path staging = Files.createTempFile(OUTPUT_DIR, name, ".zip.tmp");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(staging), digest)) {
+                write(source, out);
+            }
+            byte[] hash = digest.digest();
+            Path archive = OUTPUT_DIR.resolve(name + "-" + hex(hash) + ".zip");
+            if (Files.exists(archive)) {
+                Files.delete(staging);
+            } else {
+                Files.move(staging, archive);
+            }
+            return new LambdaPackage(archive, Base64.getEncoder().encodeToString(hash));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not package " + source, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void write(Path source, OutputStream out) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.filter(Files::isRegularFile)
+                    .sorted((a, b) -> entryName(source, a).compareTo(entryName(source, b)))
+                    .collect(toList());
+        }
+        try (var zip = new ZipOutputStream(out)) {
+            for (Path file : files) {
+                var entry = new ZipEntry(entryName(source, file));
+                entry.setTimeLocal(ENTRY_TIME);
+                zip.putNextEntry(entry);
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static String entryName(Path source, Path file) {
+        return source.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static String hex(byte[] bytes) {
+        var hex = new StringBuilder();
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    FileArchive archive() {
+        return new FileArchive(archive.toString());
+    }
+
+    /**
+     * Base64 SHA-256 of the zip, the form Lambda reports for its code.
+     */
+    String sourceCodeHash() {
+        return sourceCodeHash;
+    }
+}
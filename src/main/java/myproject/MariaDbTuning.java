@@ -0,0 +1,194 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.rds.inputs.ParameterGroupParameterArgs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * MariaDB parameters derived from the memory and vCPUs of an RDS instance class and from
+ * the IOPS of its storage. {@code rdsParameters} ({@code name=value} entries separated by
+ * ';') overrides or adds parameters; {@code rdsTuningEnabled: false} keeps the engine defaults.
+ * <p>
+ * Sizes are known for the burstable {@code t} classes and derived per vCPU for the
+ * {@code m} (4 GiB per vCPU), {@code r} (8 GiB) and {@code x} (16 GiB) families;
+ * {@code rdsMemoryGiB} and {@code rdsVcpus} describe any other class.
+ */
+final class MariaDbTuning {
+
+    private static final Pattern INSTANCE_CLASS = Pattern.compile("^db\\.([a-z]+)(\\d+)[a-z]*\\.(\\w+)$");
+    private static final long MIB = 1024L * 1024;
+    private static final long GIB = 1024 * MIB;
+
+    // Applied without a reboot; everything else waits for the next one
+    private static final Set<String> DYNAMIC = Set.of("max_connections", "innodb_io_capacity",
+            "innodb_io_capacity_max", "slow_query_log", "long_query_time", "log_output", "thread_pool_max_threads");
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    private MariaDbTuning(StackSettings config, String instanceClass) {
+        if (config.getBoolean("rdsTuningEnabled").orElse(true)) {
+            derive(config, instanceClass);
+        }
+        config.get("rdsParameters").ifPresent(overrides -> {
+            for (String entry : overrides.split(";")) {
+                String[] pair = entry.trim().split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("rdsParameters entry '" + entry + "' is not name=value");
+                }
+                values.put(pair[0].trim(), pair[1].trim());
+            }
+        });
+    }
+
+    static MariaDbTuning of(Config config, String instanceClass) {
+        return of(StackSettings.of(config), instanceClass);
+    }
+
+    static MariaDbTuning of(StackSettings settings, String instanceClass) {
+        return new MariaDbTuning(settings, instanceClass);
+    }
+
+    private void derive(StackSettings config, String instanceClass) {
+        long memory = (long) (config.getDouble("rdsMemoryGiB").orElseGet(() -> memoryGiB(instanceClass)) * GIB);
+        int vcpus = config.getInteger("rdsVcpus").orElseGet(() -> vcpus(instanceClass));
+
+        // RDS keeps part of the nominal memory for the OS and its agents, a larger share on small classes
+        double poolFraction = memory <= 2 * GIB ? 0.5 : memory <= 8 * GIB ? 0.65 : 0.75;
+        long bufferPool = roundDown((long) (memory * poolFraction), 128 * MIB);
+        values.put("innodb_buffer_pool_size", String.valueOf(bufferPool));
+
+        // Roughly 4 MiB of session buffers per connection in the memory the buffer pool leaves
+        long connections = Math.max(60, Math.min(16000, (memory - bufferPool) / (4 * MIB)));
+        values.put("max_connections", String.valueOf(connections));
+
+        // A quarter of the buffer pool holds about an hour of writes for this workload
+        long logFile = Math.max(128 * MIB, Math.min(4 * GIB, roundDown(bufferPool / 4, 64 * MIB)));
+        values.put("innodb_log_file_size", String.valueOf(logFile));
+
+        // Background flushing at half the volume's IOPS, bursting to all of it
+        int iops = storageIops(config);
+        values.put("innodb_io_capacity", String.valueOf(Math.max(200, iops / 2)));
+        values.put("innodb_io_capacity_max", String.valueOf(Math.max(2000, iops)));
+
+        if (config.getBoolean("rdsThreadPool").orElse(true)) {
+            // One thread group per vCPU instead of a thread per connection
+            values.put("thread_handling", "pool-of-threads");
+            values.put("thread_pool_size", String.valueOf(vcpus));
+            values.put("thread_pool_max_threads", String.valueOf(Math.max(500, connections)));
+        }
+
+        values.put("slow_query_log", "1");
+        values.put("long_query_time", String.valueOf(config.getDouble("rdsSlowQuerySeconds").orElse(1.0)));
+        values.put("log_output", "FILE");
+    }
+
+    /**
+     * Baseline IOPS of the configured storage: provisioned for io1 and large gp3 volumes,
+     * 3000 for other gp3 volumes and 3 per GiB (at least 100) for gp2.
+     */
+    static int storageIops(StackSettings config) {
+        String storageType = config.get("rdsStorageType").orElse("gp2");
+        int allocatedStorage = config.requireInteger("rdsAllocatedStorage");
+        switch (storageType) {
+            case "io1":
+            case "io2":
+            case "gp3":
+                return config.getInteger("rdsIops").orElse(3000);
+            default:
+                return Math.max(100, 3 * allocatedStorage);
+        }
+    }
+
+    private static double memoryGiB(String instanceClass) {
+        Matcher matcher = parse(instanceClass);
+        String family = matcher.group(1);
+        String size = matcher.group(3);
+        if (family.equals("t")) {
+            switch (size) {
+                case "micro":
+                    return 1;
+                case "small":
+                    return 2;
+                case "medium":
+                    return 4;
+                case "large":
+                    return 8;
+                case "xlarge":
+                    return 16;
+                case "2xlarge":
+                    return 32;
+                default:
+                    throw unknown(instanceClass);
+            }
+        }
+        switch (family) {
+            case "m":
+                return 4.0 * vcpus(instanceClass);
+            case "r":
+                return 8.0 * vcpus(instanceClass);
+            case "x":
+                return 16.0 * vcpus(instanceClass);
+            default:
+                throw unknown(instanceClass);
+        }
+    }
+
+    private static int vcpus(String instanceClass) {
+        String size = parse(instanceClass).group(3);
+        switch (size) {
+            case "micro":
+            case "small":
+            case "medium":
+            case "large":
+                return 2;
+            case "xlarge":
+                return 4;
+            default:
+                if (size.endsWith("xlarge")) {
+                    return 4 * Integer.parseInt(size.substring(0, size.length() - "xlarge".length()));
+                }
+                throw unknown(instanceClass);
+        }
+    }
+
+    private static Matcher parse(String instanceClass) {
+        Matcher matcher = INSTANCE_CLASS.matcher(instanceClass);
+        if (!matcher.matches()) {
+            throw unknown(instanceClass);
+        }
+        return matcher;
+    }
+
+    private static IllegalArgumentException unknown(String instanceClass) {
+        return new IllegalArgumentException("Unknown size for RDS instance class " + instanceClass
+                + "; set rdsMemoryGiB and rdsVcpus or rdsTuningEnabled: false");
+    }
+
+    private static long roundDown(long value, long unit) {
+        return Math.max(unit, value / unit * unit);
+    }
+
+    /**
+     * Parameter values by name, in the order they are applied.
+     */
+    Map<String, String> values() {
+        return values;
+    }
+
+    List<ParameterGroupParameterArgs> parameters() {
+        List<ParameterGroupParameterArgs> parameters = new ArrayList<>();
+        values.forEach((name, value) -> parameters.add(ParameterGroupParameterArgs.builder()
+                .name(name)
+                .value(value)
+                .applyMethod(DYNAMIC.contains(name) ? "immediate" : "pending-reboot")
+                .build()));
+        return parameters;
+    }
+}
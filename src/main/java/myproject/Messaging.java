@@ -0,0 +1,18 @@
+package myproject;
+
+import com.pulumi.core.Output;
+
+/**
+ * Names of the email pipeline resources, provided either by a {@link MessagingComponent}
+ * in the same program or by the outputs of a separate data stack.
+ */
+interface Messaging {
+
+    Output<String> snsTopicArn();
+
+    Output<String> snsTopicName();
+
+    Output<String> emailTrackingTableName();
+
+    Output<String> lambdaFunctionName();
+}
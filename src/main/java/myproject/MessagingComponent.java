@@ -0,0 +1,349 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.dynamodb.Table;
+import com.pulumi.aws.ec2.SecurityGroup;
+import com.pulumi.aws.ec2.SecurityGroupArgs;
+import com.pulumi.aws.ec2.SecurityGroupRule;
+import com.pulumi.aws.ec2.SecurityGroupRuleArgs;
+import com.pulumi.aws.iam.IamFunctions;
+import com.pulumi.aws.iam.Role;
+import com.pulumi.aws.iam.RoleArgs;
+import com.pulumi.aws.iam.RolePolicy;
+import com.pulumi.aws.iam.RolePolicyArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementArgs;
+import com.pulumi.aws.iam.inputs.GetPolicyDocumentStatementPrincipalArgs;
+import com.pulumi.aws.iam.outputs.GetPolicyDocumentResult;
+import com.pulumi.aws.lambda.*;
+import com.pulumi.aws.lambda.inputs.FunctionEnvironmentArgs;
+import com.pulumi.aws.lambda.inputs.FunctionVpcConfigArgs;
+import com.pulumi.aws.sns.Topic;
+import com.pulumi.aws.sns.TopicArgs;
+import com.pulumi.aws.sns.TopicSubscription;
+import com.pulumi.aws.sns.TopicSubscriptionArgs;
+import com.pulumi.aws.sqs.Queue;
+import com.pulumi.aws.sqs.QueueArgs;
+import com.pulumi.aws.sqs.QueuePolicy;
+import com.pulumi.aws.sqs.QueuePolicyArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.ComponentResource;
+import com.pulumi.resources.ComponentResourceOptions;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.*;
+
+/**
+ * SNS topic the webapp publishes submissions to, and the Lambda that tracks them
+ * in DynamoDB (optionally through DAX) and uploads them to the {@code submissionStore}
+ * bucket, S3 in the same region or GCS. The Lambda
+ * is invoked by SNS directly or, with {@code lambdaQueueEnabled}, in batches from SQS.
+ */
+final class MessagingComponent extends ComponentResource implements Messaging {
+
+    private final Topic snstopic;
+    private final Table emailTrackingTable;
+    private final Function lambdaFunction;
+
+    MessagingComponent(String name, Config config, CapacityPlan plan, Network network, boolean gcpEnabled,
+                       ComponentResourceOptions options) {
+        super("iac:messaging:Messaging", name, options);
+        var child = Region.child(this).build();
+
+        // Where submissions go: "s3" in the Lambda's own region, "gcs" (the default with gcp:project) or "none"
+        String submissionStore = config.get("submissionStore").orElse(gcpEnabled ? "gcs" : "none");
+        // Least privilege replaces the broad managed policies in policyForLambda with an inline policy
+        boolean lambdaLeastPrivilege = config.getBoolean("lambdaLeastPrivilege").orElse("s3".equals(submissionStore));
+        List<String> policyForLambda = lambdaLeastPrivilege
+                ? new ArrayList<>(List.of("arn:aws:iam::aws:policy/service-role/AWSLambdaBasicExecutionRole"))
+                : new ArrayList<>(Arrays.asList(config.require("policyForLambda").split(",")));
+        String SenderEmailAddress = config.require("SenderEmailAddress");
+        String region = config.require("region");
+        boolean daxEnabled = config.getBoolean("daxEnabled").orElse(false);
+        // DAX is only reachable inside the VPC; otherwise the function can opt into the private subnets
+        boolean lambdaInVpc = daxEnabled || config.getBoolean("lambdaInPrivateSubnets").orElse(false);
+        boolean queueEnabled = config.getBoolean("lambdaQueueEnabled").orElse(false);
+        int lambdaTimeout = config.getInteger("lambdaTimeout").orElse(60);
+        int lambdaProvisionedConcurrency = plan.lambdaProvisionedConcurrency();
+        if (queueEnabled) {
+            policyForLambda.add("arn:aws:iam::aws:policy/service-role/AWSLambdaSQSQueueExecutionRole");
+        }
+        if (lambdaInVpc) {
+            // Running inside the VPC needs ENI permissions
+            policyForLambda.add("arn:aws:iam::aws:policy/service-role/AWSLambdaVPCAccessExecutionRole");
+        }
+
+        this.snstopic = new Topic("SNSTopicForLambda", TopicArgs.builder()
+                .build(), child);
+
+        final var assumeRole = IamFunctions.getPolicyDocument(GetPolicyDocumentArgs.builder()
+                .statements(GetPolicyDocumentStatementArgs.builder()
+                        .effect("Allow")
+                        .principals(GetPolicyDocumentStatementPrincipalArgs.builder()
+                                .type("Service")
+                                .identifiers("lambda.amazonaws.com")
+                                .build())
+                        .actions("sts:AssumeRole")
+                        .build())
+                .build());
+
+        var iamForLambda = new Role("iamForLambda", RoleArgs.builder()
+                .assumeRolePolicy(assumeRole.applyValue(GetPolicyDocumentResult::json))
+                .managedPolicyArns(policyForLambda)
+                .build(), child);
+
+        Output<Map<String, String>> storageEnvironment = Output.of(Map.of());
+        Output<String> submissionBucketArn = Output.of("");
+        switch (submissionStore) {
+            case "s3":
+                var s3Store = new S3SubmissionStore(config, child);
+                storageEnvironment = s3Store.lambdaEnvironment();
+                submissionBucketArn = s3Store.bucketArn();
+                break;
+            case "gcs":
+                if (!gcpEnabled) {
+                    throw new IllegalArgumentException("submissionStore gcs needs gcp:project");
+                }
+                // Google Cloud code, only when the stack is configured for a GCP project
+                storageEnvironment = new GcpSubmissionStore(child).lambdaEnvironment();
+                break;
+            case "none":
+                break;
+            default:
+                throw new IllegalArgumentException("submissionStore must be s3, gcs or none, got " + submissionStore);
+        }
+
+        this.emailTrackingTable = new EmailTrackingTable(config, plan, this).table();
+
+        SecurityGroup lambdaSecurityGroup = null;
+        Output<String> daxEndpoint = Output.of("");
+        if (lambdaInVpc) {
+            lambdaSecurityGroup = new SecurityGroup("lambdaSecurityGroup", SecurityGroupArgs.builder()
+                    .vpcId(network.vpcId())
+                    .tags(Map.of("Name", "lambdaSecurityGroup"))
+                    .build(), child);
+
+            new SecurityGroupRule("AllOutboundRuleForLambda", SecurityGroupRuleArgs.builder()
+                    .type("egress")
+                    .fromPort(0)
+                    .toPort(0)
+                    .protocol("-1")
+                    .securityGroupId(lambdaSecurityGroup.id())
+                    .cidrBlocks(config.require("destinationCidrPublic"))
+                    .build(), child);
+        }
+        Output<String> daxArn = Output.of("");
+        if (daxEnabled) {
+            var dax = new DaxAccelerator(config, network, emailTrackingTable, lambdaSecurityGroup, child);
+            daxEndpoint = dax.endpoint();
+            daxArn = dax.arn();
+        }
+        if (lambdaLeastPrivilege) {
+            grantLeastPrivilege(iamForLambda, SenderEmailAddress, daxArn, submissionBucketArn, child);
+        }
+
+        Output<Map<String, String>> envVariables = Output.tuple(emailTrackingTable.name(), storageEnvironment, daxEndpoint)
+                .applyValue(t -> {
+                    Map<String, String> env = new HashMap<>(t.t2);
+                    env.put("SenderEmailAddress", SenderEmailAddress);
+                    env.put("region", region);
+                    env.put("dynamoDBTable", t.t1);
+                    if (!t.t3.isEmpty()) {
+                        env.put("daxEndpoint", t.t3);
+                    }
+                    return env;
+                });
+
+        String lambdaRuntime = config.get("lambdaRuntime").orElse("python3.10");
+        String lambdaArchitecture = config.get("lambdaArchitecture").orElse("x86_64");
+        var lambdaPackage = LambdaPackage.of("lambda_function", config.require("lambdaSourceDir"));
+        var lambdaArgs = FunctionArgs.builder()
+                .code(lambdaPackage.archive())
+                .sourceCodeHash(lambdaPackage.sourceCodeHash())
+                .role(iamForLambda.arn())
+                .timeout(lambdaTimeout)
+                .handler("lambda.lambda_handler")
+                .runtime(lambdaRuntime)
+                .memorySize(config.getInteger("lambdaMemorySize").orElse(128))
+                .architectures(lambdaArchitecture)
+                .reservedConcurrentExecutions(plan.lambdaReservedConcurrency())
+                .publish(lambdaProvisionedConcurrency > 0)
+                .environment(FunctionEnvironmentArgs.builder()
+                        .variables(envVariables)
+                        .build());
+        Optional<String> lambdaLayerDir = config.get("lambdaLayerDir");
+        if (lambdaLayerDir.isPresent()) {
+            // Dependencies such as the Google Cloud client change rarely; a layer keeps them out of
+            // the function package and only publishes a new version when they change
+            var layerPackage = LambdaPackage.of("lambda_layer", lambdaLayerDir.get());
+            var layer = new LayerVersion("LambdaDependencies", LayerVersionArgs.builder()
+                    .layerName("lambda-dependencies")
+                    .code(layerPackage.archive())
+                    .sourceCodeHash(layerPackage.sourceCodeHash())
+                    .compatibleRuntimes(lambdaRuntime)
+                    .compatibleArchitectures(lambdaArchitecture)
+                    .build(), child);
+            lambdaArgs.layers(layer.arn().applyValue(Collections::singletonList));
+        }
+        if (lambdaSecurityGroup != null) {
+            // Private subnets have no internet route of their own and SES and GCS have no
+            // interface endpoints here, so the function needs NAT egress
+            lambdaArgs.vpcConfig(FunctionVpcConfigArgs.builder()
+                    .subnetIds(Output.tuple(network.privateSubnetIds(), network.privateSubnetsHaveEgress()).applyValue(t -> {
+                        if (!t.t2) {
+                            throw new IllegalArgumentException((daxEnabled ? "daxEnabled" : "lambdaInPrivateSubnets")
+                                    + " places the Lambda in the private subnets, which needs natGatewaysEnabled on the network");
+                        }
+                        return t.t1;
+                    }))
+                    .securityGroupIds(lambdaSecurityGroup.id().applyValue(Collections::singletonList))
+                    .build());
+        }
+        this.lambdaFunction = new Function("LambdaFunction", lambdaArgs.build(), child);
+
+        // Provisioned concurrency needs a published version; invoke it through a stable alias
+        Output<String> invokeArn = lambdaFunction.arn();
+        Output<String> qualifier = Output.of("");
+        if (lambdaProvisionedConcurrency > 0) {
+            var alias = new Alias("LambdaFunctionLive", AliasArgs.builder()
+                    .name("live")
+                    .functionName(lambdaFunction.name())
+                    .functionVersion(lambdaFunction.version())
+                    .build(), child);
+
+            new ProvisionedConcurrencyConfig("LambdaProvisionedConcurrency", ProvisionedConcurrencyConfigArgs.builder()
+                    .functionName(lambdaFunction.name())
+                    .qualifier(alias.name())
+                    .provisionedConcurrentExecutions(lambdaProvisionedConcurrency)
+                    .build(), child);
+
+            invokeArn = alias.arn();
+            qualifier = alias.name();
+        }
+
+        if (queueEnabled) {
+            subscribeThroughQueue(config, lambdaTimeout, invokeArn, child);
+        } else {
+            new TopicSubscription("SNSTopicSubscriptionForLambda", TopicSubscriptionArgs.builder()
+                    .topic(snstopic.arn())
+                    .protocol("lambda")
+                    .endpoint(invokeArn)
+                    .build(), child);
+
+            var permissionArgs = PermissionArgs.builder()
+                    .action("lambda:InvokeFunction")
+                    .function(lambdaFunction.name())
+                    .principal("sns.amazonaws.com")
+                    .sourceArn(snstopic.arn());
+            if (lambdaProvisionedConcurrency > 0) {
+                permissionArgs.qualifier(qualifier);
+            }
+            new Permission("PermissionForSNS", permissionArgs.build(), child);
+        }
+
+        this.registerOutputs(Map.<String, Output<?>>of(
+                "snsTopicArn", snstopic.arn()));
+    }
+
+    /**
+     * Only what the function does: send from {@code SenderEmailAddress}, write tracking rows
+     * (directly or through DAX) and upload submissions to the S3 bucket.
+     */
+    private void grantLeastPrivilege(Role iamForLambda, String senderEmailAddress, Output<String> daxArn,
+                                     Output<String> submissionBucketArn, CustomResourceOptions child) {
+        Output<String> policy = Output.tuple(emailTrackingTable.arn(), daxArn, submissionBucketArn).applyValue(t -> {
+            List<String> statements = new ArrayList<>();
+            statements.add(String.format("{\"Effect\":\"Allow\",\"Action\":[\"ses:SendEmail\",\"ses:SendRawEmail\"]," +
+                    "\"Resource\":\"*\",\"Condition\":{\"StringEquals\":{\"ses:FromAddress\":\"%s\"}}}", senderEmailAddress));
+            statements.add(String.format("{\"Effect\":\"Allow\",\"Action\":[\"dynamodb:PutItem\",\"dynamodb:GetItem\"," +
+                    "\"dynamodb:UpdateItem\",\"dynamodb:Query\"],\"Resource\":[\"%1$s\",\"%1$s/index/*\"]}", t.t1));
+            if (!t.t2.isEmpty()) {
+                statements.add(String.format("{\"Effect\":\"Allow\",\"Action\":[\"dax:PutItem\",\"dax:GetItem\"," +
+                        "\"dax:UpdateItem\",\"dax:Query\"],\"Resource\":\"%s\"}", t.t2));
+            }
+            if (!t.t3.isEmpty()) {
+                statements.add(String.format("{\"Effect\":\"Allow\",\"Action\":\"s3:PutObject\",\"Resource\":\"%s/*\"}", t.t3));
+            }
+            return "{\"Version\":\"2012-10-17\",\"Statement\":[" + String.join(",", statements) + "]}";
+        });
+
+        new RolePolicy("lambdaLeastPrivilege", RolePolicyArgs.builder()
+                .role(iamForLambda.id())
+                .policy(policy)
+                .build(), child);
+    }
+
+    /**
+     * Buffers SNS messages in SQS so bursts are absorbed by the queue and the Lambda
+     * drains them in batches, with failed messages parked in a dead-letter queue.
+     */
+    private void subscribeThroughQueue(Config config, int lambdaTimeout, Output<String> invokeArn,
+                                       CustomResourceOptions child) {
+        var deadLetterQueue = new Queue("EmailQueueDLQ", QueueArgs.builder()
+                .messageRetentionSeconds(1209600)
+                .build(), child);
+
+        int maxReceiveCount = config.getInteger("queueMaxReceiveCount").orElse(5);
+        var queue = new Queue("EmailQueue", QueueArgs.builder()
+                // AWS recommends six times the function timeout so in-flight batches are not redelivered
+                .visibilityTimeoutSeconds(6 * lambdaTimeout)
+                .redrivePolicy(deadLetterQueue.arn().applyValue(arn -> String.format(
+                        "{\"deadLetterTargetArn\":\"%s\",\"maxReceiveCount\":%d}", arn, maxReceiveCount)))
+                .build(), child);
+
+        new QueuePolicy("EmailQueuePolicy", QueuePolicyArgs.builder()
+                .queueUrl(queue.url())
+                .policy(Output.tuple(queue.arn(), snstopic.arn()).applyValue(t -> String.format(
+                        "{\"Version\":\"2012-10-17\",\"Statement\":[{\"Effect\":\"Allow\"," +
+                                "\"Principal\":{\"Service\":\"sns.amazonaws.com\"},\"Action\":\"sqs:SendMessage\"," +
+                                "\"Resource\":\"%s\",\"Condition\":{\"ArnEquals\":{\"aws:SourceArn\":\"%s\"}}}]}",
+                        t.t1, t.t2)))
+                .build(), child);
+
+        new TopicSubscription("SNSTopicSubscriptionForQueue", TopicSubscriptionArgs.builder()
+                .topic(snstopic.arn())
+                .protocol("sqs")
+                .endpoint(queue.arn())
+                .build(), child);
+
+        new EventSourceMapping("EmailQueueToLambda", EventSourceMappingArgs.builder()
+                .eventSourceArn(queue.arn())
+                .functionName(invokeArn)
+                .batchSize(config.getInteger("lambdaBatchSize").orElse(10))
+                .maximumBatchingWindowInSeconds(config.getInteger("lambdaBatchingWindowSeconds").orElse(5))
+                .functionResponseTypes("ReportBatchItemFailures")
+                .build(), child);
+    }
+
+    Topic snstopic() {
+        return snstopic;
+    }
+
+    @Override
+    public Output<String> snsTopicArn() {
+        return snstopic.arn();
+    }
+
+    @Override
+    public Output<String> snsTopicName() {
+        return snstopic.name();
+    }
+
+    @Override
+    public Output<String> emailTrackingTableName() {
+        return emailTrackingTable.name();
+    }
+
+    @Override
+    public Output<String> lambdaFunctionName() {
+        return lambdaFunction.name();
+    }
+
+    Table emailTrackingTable() {
+        return emailTrackingTable;
+    }
+
+    Function lambdaFunction() {
+        return lambdaFunction;
+    }
+}
@@ -0,0 +1,46 @@
+package myproject;
+
+import com.pulumi.core.Output;
+
+import java.util.List;
+
+/**
+ * Network identifiers the other tiers build on, provided either by a {@link NetworkComponent}
+ * in the same program or by the outputs of a separate network stack.
+ */
+interface Network {
+
+    Output<String> vpcId();
+
+    Output<List<String>> publicSubnetIds();
+
+    Output<List<String>> privateSubnetIds();
+
+    /**
+     * Subnets for the database, its own with {@code isolatedTierSubnets}, otherwise the private ones.
+     */
+    Output<List<String>> dataSubnetIds();
+
+    /**
+     * Subnets for ElastiCache and DAX, its own with {@code isolatedTierSubnets}, otherwise the private ones.
+     */
+    Output<List<String>> cacheSubnetIds();
+
+    /**
+     * Subnets the webapp instances launch in.
+     */
+    Output<List<String>> computeSubnetIds();
+
+    Output<Boolean> computeInPrivateSubnets();
+
+    /**
+     * Whether the private subnets route to the internet through NAT gateways.
+     */
+    Output<Boolean> privateSubnetsHaveEgress();
+
+    Output<String> securityGroupForLBId();
+
+    Output<String> securityGroupForEC2Id();
+
+    Output<String> rdsSecurityGroupId();
+}
@@ -0,0 +1,460 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.AwsFunctions;
+import com.pulumi.aws.ec2.*;
+import com.pulumi.aws.inputs.GetAvailabilityZonesArgs;
+import com.pulumi.aws.outputs.GetAvailabilityZonesResult;
+import com.pulumi.core.Output;
+import com.pulumi.deployment.InvokeOptions;
+import com.pulumi.resources.ComponentResource;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * VPC, subnets, route tables, optional per-AZ NAT gateways and VPC endpoints, and the
+ * security groups shared by the other tiers. Secondary regions need a {@code cidrBlock_<region>}
+ * that does not overlap the primary's, so the VPCs can be peered. With {@code isolatedTierSubnets}
+ * the data and cache tiers get private subnets of their own instead of sharing the private ones.
+ * Subnets are declared up front from {@code num_of_subnets} and only their
+ * availability zone waits on the AZ lookup, so nothing here blocks registration. Each subnet
+ * gets its own zone, so {@code num_of_subnets} may not exceed the region's zone count.
+ */
+final class NetworkComponent extends ComponentResource implements Network {
+
+    private final Output<List<String>> availabilityZones;
+    private final Vpc vpc;
+    private final List<Subnet> publicSubnets;
+    private final List<Subnet> privateSubnets;
+    private final List<Subnet> dataSubnets;
+    private final List<Subnet> cacheSubnets;
+    private final List<RouteTable> routeTables;
+    private final boolean computeInPrivateSubnets;
+    private final boolean natGatewaysEnabled;
+    private final SecurityGroup securityGroupForLB;
+    private final SecurityGroup securityGroupForEC2;
+    private final SecurityGroup rdsSecurityGroup;
+
+    NetworkComponent(String name, Config config, Region region) {
+        super("iac:network:Network", region.resourceName(name), region.options());
+        var child = Region.child(this).build();
+
+        String vpcName = config.require("vpcName");
+        String inputCidr = region.require(config, "cidrBlock");
+        String igwName = config.require("internetGatewayName");
+        String publicRT = config.require("publicRouteTable");
+        String privateRT = config.require("privateRouteTable");
+        String publicRtAssociation = config.require("publicRouteTableAssociation");
+        String privateRtAssociation = config.require("privateRouteTableAssociation");
+        String publicRouteAllowAll = config.require("publicRoute");
+        String destinationCidrPublic = config.require("destinationCidrPublic");
+        int num_of_subnets = config.requireInteger("num_of_subnets");
+        String ec2SecurityGroupName = config.require("ec2SecurityGroupName");
+        String rdsSecurityGroupName = config.require("rdsSecurityGroupName");
+        int databasePort = config.requireInteger("databasePort");
+        String lbSecurityGroupName = config.require("lbSecurityGroupName");
+        String[] allowedPortsForLB = config.require("allowedPortsForLB").split(",");
+        String[] allowedPortsForEC2 = config.require("allowedPortsForEC2").split(",");
+        this.natGatewaysEnabled = config.getBoolean("natGatewaysEnabled").orElse(false);
+        this.computeInPrivateSubnets = config.getBoolean("computeInPrivateSubnets").orElse(false);
+        if (computeInPrivateSubnets && !natGatewaysEnabled) {
+            checkInterfaceEndpoints(config);
+        }
+
+        // Get availability zones
+        this.availabilityZones = AwsFunctions.getAvailabilityZones(GetAvailabilityZonesArgs.builder().state("available").build(),
+                        new InvokeOptions(this, null, null))
+                .applyValue(GetAvailabilityZonesResult::names);
+
+        // Create a VPC
+        this.vpc = new Vpc(region.resourceName(vpcName), VpcArgs.builder()
+                .cidrBlock(inputCidr)
+                .instanceTenancy("default")
+                .tags(Map.of("Name", vpcName))
+                .build(), child);
+
+        // Create an Internet Gateway and attach VPC to it
+        var igw = new InternetGateway(region.resourceName(igwName), new InternetGatewayArgs.Builder()
+                .vpcId(vpc.id())
+                .tags(Map.of("Name", igwName))
+                .build(), child);
+
+        // Create public route table
+        RouteTable publicRouteTable = new RouteTable(region.resourceName(publicRT), RouteTableArgs.builder()
+                .vpcId(vpc.id())
+                .tags(Map.of("Name", publicRT))
+                .build(), child);
+
+        // Create public route with the internet gateway as the target
+        new Route(region.resourceName(publicRouteAllowAll), new RouteArgs.Builder()
+                .routeTableId(publicRouteTable.id())
+                .destinationCidrBlock(destinationCidrPublic)
+                .gatewayId(igw.id())
+                .build(), child);
+
+        // Create private route table
+        RouteTable privateRouteTable = new RouteTable(region.resourceName(privateRT), RouteTableArgs.builder()
+                .vpcId(vpc.id())
+                .tags(Map.of("Name", privateRT))
+                .build(), child);
+
+        // Carve the tiers out of the VPC block without overlaps. Stacks created with the old
+        // third-octet layout pin their existing blocks instead, since a subnet whose CIDR
+        // changes is replaced along with everything placed in it
+        boolean isolatedTierSubnets = config.getBoolean("isolatedTierSubnets").orElse(false);
+        List<String> publicCidrBlocks;
+        List<String> privateCidrBlocks;
+        List<String> dataCidrBlocks = List.of();
+        List<String> cacheCidrBlocks = List.of();
+        Optional<String> publicSubnetCidrs = region.get(config, "publicSubnetCidrs");
+        Optional<String> privateSubnetCidrs = region.get(config, "privateSubnetCidrs");
+        if (publicSubnetCidrs.isPresent() || privateSubnetCidrs.isPresent()) {
+            publicCidrBlocks = cidrBlocks("publicSubnetCidrs", publicSubnetCidrs, num_of_subnets);
+            privateCidrBlocks = cidrBlocks("privateSubnetCidrs", privateSubnetCidrs, num_of_subnets);
+            if (isolatedTierSubnets) {
+                dataCidrBlocks = cidrBlocks("dataSubnetCidrs", region.get(config, "dataSubnetCidrs"), num_of_subnets);
+                cacheCidrBlocks = cidrBlocks("cacheSubnetCidrs", region.get(config, "cacheSubnetCidrs"), num_of_subnets);
+            }
+        } else {
+            SubnetAllocator allocator = SubnetAllocator.of(inputCidr);
+            int defaultPrefix = allocator.prefixForCount((isolatedTierSubnets ? 4 : 2) * num_of_subnets);
+            publicCidrBlocks = allocator.allocate(num_of_subnets, config.getInteger("publicSubnetPrefix").orElse(defaultPrefix));
+            privateCidrBlocks = allocator.allocate(num_of_subnets, config.getInteger("privateSubnetPrefix").orElse(defaultPrefix));
+            if (isolatedTierSubnets) {
+                dataCidrBlocks = allocator.allocate(num_of_subnets, config.getInteger("dataSubnetPrefix").orElse(defaultPrefix));
+                cacheCidrBlocks = allocator.allocate(num_of_subnets, config.getInteger("cacheSubnetPrefix").orElse(defaultPrefix));
+            }
+        }
+
+        this.publicSubnets = createSubnets(region, publicCidrBlocks, "Public", true, child);
+        this.privateSubnets = createSubnets(region, privateCidrBlocks, "Private", false, child);
+        this.dataSubnets = createSubnets(region, dataCidrBlocks, "Data", false, child);
+        this.cacheSubnets = createSubnets(region, cacheCidrBlocks, "Cache", false, child);
+
+        // Attaching public subnets to public route table
+        for (int i = 0; i < publicSubnets.size(); i++) {
+            new RouteTableAssociation(region.resourceName(publicRtAssociation + i), RouteTableAssociationArgs.builder()
+                    .subnetId(publicSubnets.get(i).id())
+                    .routeTableId(publicRouteTable.id())
+                    .build(), child);
+        }
+
+        // With NAT each private subnet routes out through the gateway in its own AZ,
+        // so it needs its own route table; otherwise they share the private route table
+        List<RouteTable> privateRouteTables = new ArrayList<>();
+        if (natGatewaysEnabled) {
+            for (int i = 0; i < privateSubnets.size(); i++) {
+                var eip = new Eip(region.resourceName("natEip" + i), EipArgs.builder()
+                        .domain("vpc")
+                        .tags(Map.of("Name", "natEip" + i))
+                        .build(), child);
+
+                var natGateway = new NatGateway(region.resourceName("natGateway" + i), NatGatewayArgs.builder()
+                        .allocationId(eip.id())
+                        .subnetId(publicSubnets.get(i).id())
+                        .tags(Map.of("Name", "natGateway" + i))
+                        .build(), Region.child(this).dependsOn(igw).build());
+
+                var routeTable = new RouteTable(region.resourceName(privateRT + i), RouteTableArgs.builder()
+                        .vpcId(vpc.id())
+                        .tags(Map.of("Name", privateRT + i))
+                        .build(), child);
+
+                new Route(region.resourceName("privateRouteNat" + i), new RouteArgs.Builder()
+                        .routeTableId(routeTable.id())
+                        .destinationCidrBlock(destinationCidrPublic)
+                        .natGatewayId(natGateway.id())
+                        .build(), child);
+                privateRouteTables.add(routeTable);
+            }
+        } else {
+            for (int i = 0; i < privateSubnets.size(); i++) {
+                privateRouteTables.add(privateRouteTable);
+            }
+        }
+
+        // Attaching private subnets to private route table
+        for (int i = 0; i < privateSubnets.size(); i++) {
+            new RouteTableAssociation(region.resourceName(privateRtAssociation + i), RouteTableAssociationArgs.builder()
+                    .subnetId(privateSubnets.get(i).id())
+                    .routeTableId(privateRouteTables.get(i).id())
+                    .build(), child);
+        }
+        // Data and cache subnets share the route table of the private subnet in their zone
+        for (int i = 0; i < dataSubnets.size(); i++) {
+            new RouteTableAssociation(region.resourceName(privateRtAssociation + "Data" + i), RouteTableAssociationArgs.builder()
+                    .subnetId(dataSubnets.get(i).id())
+                    .routeTableId(privateRouteTables.get(i).id())
+                    .build(), child);
+        }
+        for (int i = 0; i < cacheSubnets.size(); i++) {
+            new RouteTableAssociation(region.resourceName(privateRtAssociation + "Cache" + i), RouteTableAssociationArgs.builder()
+                    .subnetId(cacheSubnets.get(i).id())
+                    .routeTableId(privateRouteTables.get(i).id())
+                    .build(), child);
+        }
+
+        this.routeTables = new ArrayList<>();
+        routeTables.add(publicRouteTable);
+        privateRouteTables.stream().distinct().forEach(routeTables::add);
+
+        // Gateway endpoints keep DynamoDB and S3 traffic on the AWS network at no hourly cost
+        if (config.getBoolean("vpcGatewayEndpoints").orElse(true)) {
+            List<Output<String>> routeTableIds = routeTables.stream().map(RouteTable::id).collect(toList());
+            for (String service : List.of("dynamodb", "s3")) {
+                new VpcEndpoint(region.resourceName(service + "GatewayEndpoint"), VpcEndpointArgs.builder()
+                        .vpcId(vpc.id())
+                        .serviceName("com.amazonaws." + region.name() + "." + service)
+                        .vpcEndpointType("Gateway")
+                        .routeTableIds(Output.all(routeTableIds))
+                        .tags(Map.of("Name", service + "GatewayEndpoint"))
+                        .build(), child);
+            }
+        }
+
+        // Interface endpoints, e.g. sns,logs,monitoring,ssm, resolve the service's public
+        // DNS name to private IPs inside the VPC
+        config.get("vpcInterfaceEndpoints").ifPresent(services -> {
+            var endpointSecurityGroup = new SecurityGroup(region.resourceName("vpcEndpointSecurityGroup"), SecurityGroupArgs.builder()
+                    .vpcId(vpc.id())
+                    .tags(Map.of("Name", "vpcEndpointSecurityGroup"))
+                    .build(), child);
+
+            new SecurityGroupRule(region.resourceName("InboundRuleForVpcEndpointsOn 443"), SecurityGroupRuleArgs.builder()
+                    .type("ingress")
+                    .fromPort(443)
+                    .toPort(443)
+                    .protocol("tcp")
+                    .securityGroupId(endpointSecurityGroup.id())
+                    .cidrBlocks(inputCidr)
+                    .build(), child);
+
+            for (String service : services.split(",")) {
+                new VpcEndpoint(region.resourceName(service.trim() + "InterfaceEndpoint"), VpcEndpointArgs.builder()
+                        .vpcId(vpc.id())
+                        .serviceName("com.amazonaws." + region.name() + "." + service.trim())
+                        .vpcEndpointType("Interface")
+                        .privateDnsEnabled(true)
+                        .subnetIds(privateSubnetIds())
+                        .securityGroupIds(endpointSecurityGroup.id().applyValue(Collections::singletonList))
+                        .tags(Map.of("Name", service.trim() + "InterfaceEndpoint"))
+                        .build(), child);
+            }
+        });
+
+        // Create a security Group for Load Balancer
+        this.securityGroupForLB = new SecurityGroup(region.resourceName(lbSecurityGroupName), SecurityGroupArgs.builder()
+                .vpcId(vpc.id())
+                .tags(Map.of("Name", lbSecurityGroupName))
+                .build(), child);
+
+        // Create a Security Group for EC2
+        this.securityGroupForEC2 = new SecurityGroup(region.resourceName(ec2SecurityGroupName), SecurityGroupArgs.builder()
+                .vpcId(vpc.id())
+                .tags(Map.of("Name", ec2SecurityGroupName))
+                .build(), child);
+
+        // Adding ingress and egress to allow traffic for Load Balancer Security Group
+        for (String allowedPort : allowedPortsForLB) {
+            int port = Integer.parseInt(allowedPort);
+            new SecurityGroupRule(region.resourceName("InboundRuleForLBOn " + port), SecurityGroupRuleArgs.builder()
+                    .type("ingress")
+                    .fromPort(port)
+                    .toPort(port)
+                    .protocol("tcp")
+                    .securityGroupId(securityGroupForLB.id())
+                    .cidrBlocks(destinationCidrPublic)
+                    .build(), child);
+        }
+
+        // All outbound rule for Load Balancer Security Group
+        new SecurityGroupRule(region.resourceName("AllOutboundRuleForLB "), SecurityGroupRuleArgs.builder()
+                .type("egress")
+                .fromPort(0)
+                .toPort(0)
+                .protocol("-1")
+                .securityGroupId(securityGroupForLB.id())
+                .cidrBlocks(destinationCidrPublic)
+                .build(), child);
+
+        // Adding ingress for Application Security Group from Load Balancer Security Group
+        for (String allowedPort : allowedPortsForEC2) {
+            int port = Integer.parseInt(allowedPort);
+            new SecurityGroupRule(region.resourceName("InboundRuleForEC2On " + port), SecurityGroupRuleArgs.builder()
+                    .type("ingress")
+                    .fromPort(port)
+                    .toPort(port)
+                    .protocol("tcp")
+                    .sourceSecurityGroupId(securityGroupForLB.id())
+                    .securityGroupId(securityGroupForEC2.id())
+                    .build(), child);
+        }
+
+        // Create a Security Group for RDS Instances
+        this.rdsSecurityGroup = new SecurityGroup(region.resourceName(rdsSecurityGroupName), SecurityGroupArgs.builder()
+                .vpcId(vpc.id())
+                .tags(Map.of("Name", rdsSecurityGroupName))
+                .build(), child);
+
+        // RDS Security Group rule to allow Inbound traffic from EC2 security group
+        new SecurityGroupRule(region.resourceName("InboundRuleForRDSOn " + databasePort), SecurityGroupRuleArgs.builder()
+                .type("ingress")
+                .fromPort(databasePort)
+                .toPort(databasePort)
+                .protocol("tcp")
+                .sourceSecurityGroupId(securityGroupForEC2.id())
+                .securityGroupId(rdsSecurityGroup.id())
+                .build(), child);
+
+        // All Outbound Rule for Application Security Group
+        new SecurityGroupRule(region.resourceName("AllOutboundRuleForEC2 "), SecurityGroupRuleArgs.builder()
+                .type("egress")
+                .fromPort(0)
+                .toPort(0)
+                .protocol("-1")
+                .securityGroupId(securityGroupForEC2.id())
+                .cidrBlocks(destinationCidrPublic)
+                .build(), child);
+
+        this.registerOutputs(Map.<String, Output<?>>of(
+                "vpcId", vpc.id(),
+                "availabilityZones", availabilityZones));
+    }
+
+    /**
+     * Without NAT, instances in the private subnets reach AWS APIs only through interface
+     * endpoints: SSM for their settings, SNS, CloudWatch and, for the launch hook, auto scaling.
+     */
+    private static void checkInterfaceEndpoints(Config config) {
+        List<String> needed = new ArrayList<>(List.of("ssm", "sns", "logs", "monitoring"));
+        if (config.getBoolean("launchHookEnabled").orElse(true)) {
+            needed.add("autoscaling");
+        }
+        List<String> endpoints = config.get("vpcInterfaceEndpoints")
+                .map(services -> Arrays.stream(services.split(",")).map(String::trim).collect(toList()))
+                .orElse(List.of());
+        needed.removeAll(endpoints);
+        if (!needed.isEmpty()) {
+            throw new IllegalArgumentException("computeInPrivateSubnets needs natGatewaysEnabled or vpcInterfaceEndpoints for "
+                    + String.join(",", needed));
+        }
+    }
+
+    private static List<String> cidrBlocks(String key, Optional<String> value, int count) {
+        List<String> blocks = Arrays.stream(value.orElseThrow(() -> new IllegalArgumentException(
+                        key + " must be set too when subnet CIDRs are pinned")).split(","))
+                .map(String::trim)
+                .collect(toList());
+        if (blocks.size() != count) {
+            throw new IllegalArgumentException(key + " lists " + blocks.size() + " blocks but num_of_subnets is " + count);
+        }
+        return blocks;
+    }
+
+    private List<Subnet> createSubnets(Region region, List<String> subnetCidrBlocks, String subnetName, boolean isPublic,
+                                       CustomResourceOptions child) {
+        List<Subnet> subnets = new ArrayList<>();
+
+        int count = subnetCidrBlocks.size();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            // One subnet per zone: the load balancer and interface endpoints reject two in the same zone
+            Subnet subnet = new Subnet(region.resourceName(subnetName + i), new SubnetArgs.Builder()
+                    .vpcId(vpc.id())
+                    .availabilityZone(availabilityZones.applyValue(zones -> {
+                        if (count > zones.size()) {
+                            throw new IllegalArgumentException("num_of_subnets is " + count + " but region " + region.name()
+                                    + " has only " + zones.size() + " availability zones");
+                        }
+                        return zones.get(index);
+                    }))
+                    .cidrBlock(subnetCidrBlocks.get(i))
+                    .mapPublicIpOnLaunch(isPublic)
+                    .tags(Map.of("Name", subnetName + i))
+                    .build(), child);
+            subnets.add(subnet);
+        }
+        return subnets;
+    }
+
+    Output<List<String>> availabilityZones() {
+        return availabilityZones;
+    }
+
+    Vpc vpc() {
+        return vpc;
+    }
+
+    /**
+     * The public route table followed by every distinct private one.
+     */
+    List<RouteTable> routeTables() {
+        return routeTables;
+    }
+
+    @Override
+    public Output<String> vpcId() {
+        return vpc.id();
+    }
+
+    @Override
+    public Output<List<String>> publicSubnetIds() {
+        return Output.all(publicSubnets.stream().map(Subnet::id).collect(toList()));
+    }
+
+    @Override
+    public Output<List<String>> privateSubnetIds() {
+        return Output.all(privateSubnets.stream().map(Subnet::id).collect(toList()));
+    }
+
+    @Override
+    public Output<List<String>> dataSubnetIds() {
+        return dataSubnets.isEmpty() ? privateSubnetIds() : Output.all(dataSubnets.stream().map(Subnet::id).collect(toList()));
+    }
+
+    @Override
+    public Output<List<String>> cacheSubnetIds() {
+        return cacheSubnets.isEmpty() ? privateSubnetIds() : Output.all(cacheSubnets.stream().map(Subnet::id).collect(toList()));
+    }
+
+    /**
+     * Private behind NAT when {@code computeInPrivateSubnets} is set, otherwise public.
+     */
+    @Override
+    public Output<List<String>> computeSubnetIds() {
+        return computeInPrivateSubnets ? privateSubnetIds() : publicSubnetIds();
+    }
+
+    @Override
+    public Output<Boolean> computeInPrivateSubnets() {
+        return Output.of(computeInPrivateSubnets);
+    }
+
+    @Override
+    public Output<Boolean> privateSubnetsHaveEgress() {
+        return Output.of(natGatewaysEnabled);
+    }
+
+    @Override
+    public Output<String> securityGroupForLBId() {
+        return securityGroupForLB.id();
+    }
+
+    @Override
+    public Output<String> securityGroupForEC2Id() {
+        return securityGroupForEC2.id();
+    }
+
+    @Override
+    public Output<String> rdsSecurityGroupId() {
+        return rdsSecurityGroup.id();
+    }
+}
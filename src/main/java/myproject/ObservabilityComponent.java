@@ -0,0 +1,144 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.cloudwatch.Dashboard;
+import com.pulumi.aws.cloudwatch.DashboardArgs;
+import com.pulumi.aws.cloudwatch.MetricAlarm;
+import com.pulumi.aws.cloudwatch.MetricAlarmArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.ComponentResource;
+import com.pulumi.resources.ComponentResourceOptions;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CloudWatch dashboard and alarms covering the load balancer, fleet, database, email
+ * tracking table, Lambda and SNS topic. Alarms notify {@code alarmTopicArn} when set;
+ * thresholds are per stack.
+ */
+final class ObservabilityComponent extends ComponentResource {
+
+    private final Dashboard dashboard;
+
+    ObservabilityComponent(String name, Config config, ComputeComponent compute, Database data,
+                           Messaging messaging, ComponentResourceOptions options) {
+        super("iac:observability:Observability", name, options);
+        var child = Region.child(this).build();
+
+        String region = config.require("region");
+        List<String> alarmActions = config.get("alarmTopicArn").map(Collections::singletonList).orElse(List.of());
+        int evaluationPeriods = config.getInteger("alarmEvaluationPeriods").orElse(3);
+
+        Output<String> lbSuffix = compute.loadBalancer().arnSuffix();
+        Output<String> tgSuffix = compute.targetGroup().arnSuffix();
+        Output<String> asgName = compute.asg().name();
+        Output<String> dbIdentifier = data.instanceIdentifier();
+        Output<String> tableName = messaging.emailTrackingTableName();
+        Output<String> functionName = messaging.lambdaFunctionName();
+        Output<String> topicName = messaging.snsTopicName();
+
+        this.dashboard = new Dashboard("performanceDashboard", DashboardArgs.builder()
+                .dashboardName(config.get("dashboardName").orElse("webapp-performance"))
+                .dashboardBody(Output.tuple(lbSuffix, tgSuffix, asgName, dbIdentifier, tableName, functionName, topicName)
+                        .applyValue(t -> {
+                            List<String> widgets = new ArrayList<>();
+                            widgets.add(widget("ALB latency", region, "p99",
+                                    metric("AWS/ApplicationELB", "TargetResponseTime", "LoadBalancer", t.t1, "p50"),
+                                    metric("AWS/ApplicationELB", "TargetResponseTime", "LoadBalancer", t.t1, "p90"),
+                                    metric("AWS/ApplicationELB", "TargetResponseTime", "LoadBalancer", t.t1, "p99")));
+                            widgets.add(widget("ALB requests and errors", region, "Sum",
+                                    metric("AWS/ApplicationELB", "RequestCount", "LoadBalancer", t.t1, "Sum"),
+                                    metric("AWS/ApplicationELB", "HTTPCode_Target_5XX_Count", "LoadBalancer", t.t1, "Sum"),
+                                    metric("AWS/ApplicationELB", "HTTPCode_ELB_5XX_Count", "LoadBalancer", t.t1, "Sum"),
+                                    String.format("[\"AWS/ApplicationELB\",\"HealthyHostCount\",\"TargetGroup\",\"%s\",\"LoadBalancer\",\"%s\",{\"stat\":\"Minimum\"}]", t.t2, t.t1)));
+                            widgets.add(widget("Fleet", region, "Average",
+                                    metric("AWS/EC2", "CPUUtilization", "AutoScalingGroupName", t.t3, "Average"),
+                                    metric("AWS/AutoScaling", "GroupInServiceInstances", "AutoScalingGroupName", t.t3, "Average")));
+                            widgets.add(widget("RDS", region, "Average",
+                                    metric("AWS/RDS", "CPUUtilization", "DBInstanceIdentifier", t.t4, "Average"),
+                                    metric("AWS/RDS", "DatabaseConnections", "DBInstanceIdentifier", t.t4, "Average"),
+                                    metric("AWS/RDS", "ReadLatency", "DBInstanceIdentifier", t.t4, "Average"),
+                                    metric("AWS/RDS", "WriteLatency", "DBInstanceIdentifier", t.t4, "Average"),
+                                    metric("AWS/RDS", "DiskQueueDepth", "DBInstanceIdentifier", t.t4, "Average")));
+                            widgets.add(widget("DynamoDB", region, "Sum",
+                                    metric("AWS/DynamoDB", "ConsumedReadCapacityUnits", "TableName", t.t5, "Sum"),
+                                    metric("AWS/DynamoDB", "ConsumedWriteCapacityUnits", "TableName", t.t5, "Sum"),
+                                    metric("AWS/DynamoDB", "ReadThrottleEvents", "TableName", t.t5, "Sum"),
+                                    metric("AWS/DynamoDB", "WriteThrottleEvents", "TableName", t.t5, "Sum")));
+                            widgets.add(widget("Lambda", region, "Sum",
+                                    metric("AWS/Lambda", "Duration", "FunctionName", t.t6, "p99"),
+                                    metric("AWS/Lambda", "Errors", "FunctionName", t.t6, "Sum"),
+                                    metric("AWS/Lambda", "Throttles", "FunctionName", t.t6, "Sum"),
+                                    metric("AWS/Lambda", "ConcurrentExecutions", "FunctionName", t.t6, "Maximum")));
+                            widgets.add(widget("SNS", region, "Sum",
+                                    metric("AWS/SNS", "NumberOfMessagesPublished", "TopicName", t.t7, "Sum"),
+                                    metric("AWS/SNS", "NumberOfNotificationsFailed", "TopicName", t.t7, "Sum")));
+                            return "{\"widgets\":[" + String.join(",", widgets) + "]}";
+                        }))
+                .build(), child);
+
+        // p99 latency at the load balancer, which is what users see
+        alarm("albP99Latency", "AWS/ApplicationELB", "TargetResponseTime", "LoadBalancer", lbSuffix, "p99",
+                config.getDouble("alarmLatencyP99Seconds").orElse(1.0), evaluationPeriods, alarmActions, child);
+        alarm("albTarget5xx", "AWS/ApplicationELB", "HTTPCode_Target_5XX_Count", "LoadBalancer", lbSuffix, "Sum",
+                config.getDouble("alarm5xxPerMinute").orElse(10.0), evaluationPeriods, alarmActions, child);
+        alarm("rdsCpuHigh", "AWS/RDS", "CPUUtilization", "DBInstanceIdentifier", dbIdentifier, "Average",
+                config.getDouble("alarmRdsCpuPercent").orElse(80.0), evaluationPeriods, alarmActions, child);
+        alarm("rdsWriteLatency", "AWS/RDS", "WriteLatency", "DBInstanceIdentifier", dbIdentifier, "Average",
+                config.getDouble("alarmRdsLatencySeconds").orElse(0.02), evaluationPeriods, alarmActions, child);
+        alarm("dynamoReadThrottles", "AWS/DynamoDB", "ReadThrottleEvents", "TableName", tableName, "Sum",
+                0.0, evaluationPeriods, alarmActions, child);
+        alarm("dynamoWriteThrottles", "AWS/DynamoDB", "WriteThrottleEvents", "TableName", tableName, "Sum",
+                0.0, evaluationPeriods, alarmActions, child);
+        alarm("lambdaErrors", "AWS/Lambda", "Errors", "FunctionName", functionName, "Sum",
+                0.0, evaluationPeriods, alarmActions, child);
+        alarm("lambdaThrottles", "AWS/Lambda", "Throttles", "FunctionName", functionName, "Sum",
+                0.0, evaluationPeriods, alarmActions, child);
+        alarm("lambdaP99Duration", "AWS/Lambda", "Duration", "FunctionName", functionName, "p99",
+                config.getDouble("alarmLambdaP99Millis").orElse(10000.0), evaluationPeriods, alarmActions, child);
+        alarm("snsDeliveryFailures", "AWS/SNS", "NumberOfNotificationsFailed", "TopicName", topicName, "Sum",
+                0.0, evaluationPeriods, alarmActions, child);
+
+        this.registerOutputs(Map.<String, Output<?>>of(
+                "dashboardName", dashboard.dashboardName()));
+    }
+
+    /**
+     * Alarm on one metric over one-minute periods. Percentile statistics such as {@code p99}
+     * go through {@code extendedStatistic}; missing data means the resource is idle.
+     */
+    private static void alarm(String name, String namespace, String metricName, String dimension,
+                              Output<String> dimensionValue, String statistic, double threshold,
+                              int evaluationPeriods, List<String> alarmActions, CustomResourceOptions child) {
+        var alarmArgs = MetricAlarmArgs.builder()
+                .comparisonOperator("GreaterThanThreshold")
+                .evaluationPeriods(evaluationPeriods)
+                .metricName(metricName)
+                .namespace(namespace)
+                .period(60)
+                .threshold(threshold)
+                .treatMissingData("notBreaching")
+                .alarmActions(alarmActions)
+                .dimensions(dimensionValue.applyValue(value -> Collections.singletonMap(dimension, value)));
+        if (statistic.startsWith("p")) {
+            alarmArgs.extendedStatistic(statistic);
+        } else {
+            alarmArgs.statistic(statistic);
+        }
+        new MetricAlarm(name, alarmArgs.build(), child);
+    }
+
+    private static String metric(String namespace, String metricName, String dimension, String value, String stat) {
+        return String.format("[\"%s\",\"%s\",\"%s\",\"%s\",{\"stat\":\"%s\"}]", namespace, metricName, dimension, value, stat);
+    }
+
+    private static String widget(String title, String region, String stat, String... metrics) {
+        return String.format("{\"type\":\"metric\",\"width\":12,\"height\":6,\"properties\":{\"title\":\"%s\"," +
+                        "\"region\":\"%s\",\"stat\":\"%s\",\"period\":60,\"metrics\":[%s]}}",
+                title, region, stat, String.join(",", metrics));
+    }
+}
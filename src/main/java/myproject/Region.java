@@ -0,0 +1,121 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.Provider;
+import com.pulumi.aws.ProviderArgs;
+import com.pulumi.core.Alias;
+import com.pulumi.core.Output;
+import com.pulumi.resources.ComponentResourceOptions;
+import com.pulumi.resources.CustomResourceOptions;
+import com.pulumi.resources.Resource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * AWS region a tier is deployed to.
+ * <p>
+ * The primary region is the stack's {@code region}; it uses the default provider and
+ * unprefixed resource names, so single-region stacks keep their URNs. Every other entry of
+ * {@code regions} gets an explicit provider and prefixes resource names with the region,
+ * because a URN carries the parent component's type but not its name. Region-bound values
+ * such as {@code cidrBlock}, {@code amiId} or {@code certificateArn} must be set per region
+ * with a {@code <key>_<region>} key, e.g. {@code amiId_eu-west-1}.
+ */
+final class Region {
+
+    private final String name;
+    private final String prefix;
+    private final ComponentResourceOptions options;
+
+    private Region(String name, String prefix, ComponentResourceOptions options) {
+        this.name = name;
+        this.prefix = prefix;
+        this.options = options;
+    }
+
+    static Region primary(Config config) {
+        return new Region(config.require("region"), "", ComponentResourceOptions.Empty);
+    }
+
+    /**
+     * Regions from {@code regions} other than the primary one, each with its own provider.
+     * Explicit providers do not read the stack's {@code aws:} config, so the credential
+     * settings are copied from {@code awsConfig} to keep every region in the same account.
+     */
+    static List<Region> secondaries(Config config, Config awsConfig) {
+        List<Region> regions = new ArrayList<>();
+        for (String name : secondaryNames(config)) {
+            var providerArgs = ProviderArgs.builder().region(name);
+            awsConfig.get("profile").ifPresent(providerArgs::profile);
+            awsConfig.get("accessKey").ifPresent(providerArgs::accessKey);
+            awsConfig.getSecret("secretKey").ifPresent(providerArgs::secretKey);
+            awsConfig.getSecret("token").ifPresent(providerArgs::token);
+            var provider = new Provider("aws-" + name, providerArgs.build());
+            regions.add(new Region(name, name + "-", ComponentResourceOptions.builder()
+                    .providers(provider)
+                    .build()));
+        }
+        return regions;
+    }
+
+    static List<String> secondaryNames(Config config) {
+        String primary = config.require("region");
+        return config.get("regions")
+                .map(regions -> Arrays.stream(regions.split(","))
+                        .map(String::trim)
+                        .filter(name -> !name.isEmpty() && !name.equals(primary))
+                        .distinct()
+                        .collect(toList()))
+                .orElse(List.of());
+    }
+
+    String name() {
+        return name;
+    }
+
+    boolean isPrimary() {
+        return prefix.isEmpty();
+    }
+
+    /**
+     * Logical name for a resource in this region.
+     */
+    String resourceName(String base) {
+        return prefix + base;
+    }
+
+    ComponentResourceOptions options() {
+        return options;
+    }
+
+    /**
+     * Options for a resource inside a component. Before the stack was split into components
+     * every resource was registered at the stack root, so each child also answers to its
+     * root-level URN and existing stacks adopt it in place instead of replacing it.
+     */
+    static CustomResourceOptions.Builder child(Resource parent) {
+        return CustomResourceOptions.builder()
+                .parent(parent)
+                .aliases(Output.of(Alias.noParent()));
+    }
+
+    /**
+     * A value that only works in the region it was made for, such as a CIDR block that must not
+     * overlap the primary's, an AMI or an ACM certificate. Secondary regions read
+     * {@code <key>_<region>} and never fall back to the primary's value.
+     */
+    Optional<String> get(Config config, String key) {
+        return isPrimary() ? config.get(key) : config.get(key + "_" + name);
+    }
+
+    String require(Config config, String key) {
+        return get(config, key).orElseThrow(() -> new IllegalArgumentException(isPrimary()
+                ? "Missing required configuration variable '" + key + "'"
+                : "Missing required configuration variable '" + key + "_" + name + "'; region " + name + " cannot reuse the primary's " + key));
+    }
+}
@@ -0,0 +1,98 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.s3.BucketAccelerateConfigurationV2;
+import com.pulumi.aws.s3.BucketAccelerateConfigurationV2Args;
+import com.pulumi.aws.s3.BucketLifecycleConfigurationV2;
+import com.pulumi.aws.s3.BucketLifecycleConfigurationV2Args;
+import com.pulumi.aws.s3.BucketPublicAccessBlock;
+import com.pulumi.aws.s3.BucketPublicAccessBlockArgs;
+import com.pulumi.aws.s3.BucketV2;
+import com.pulumi.aws.s3.BucketV2Args;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleAbortIncompleteMultipartUploadArgs;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleArgs;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleExpirationArgs;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleFilterArgs;
+import com.pulumi.aws.s3.inputs.BucketLifecycleConfigurationV2RuleTransitionArgs;
+import com.pulumi.core.Output;
+import com.pulumi.resources.CustomResourceOptions;
+
+import java.util.Map;
+
+/**
+ * S3 bucket in the Lambda's region for submissions, the same-cloud alternative to
+ * {@link GcpSubmissionStore}. Submissions move to Standard-IA after {@code submissionIaDays}
+ * and, with {@code submissionExpirationDays}, are deleted; {@code submissionTransferAcceleration}
+ * enables the accelerated endpoint for distant uploaders.
+ */
+final class S3SubmissionStore {
+
+    private final BucketV2 bucket;
+    private final boolean accelerated;
+
+    S3SubmissionStore(Config config, CustomResourceOptions child) {
+        this.accelerated = config.getBoolean("submissionTransferAcceleration").orElse(false);
+        int iaDays = config.getInteger("submissionIaDays").orElse(30);
+        // Standard-IA bills a 30 day minimum and S3 rejects earlier transitions
+        if (iaDays < 30) {
+            throw new IllegalArgumentException("submissionIaDays must be at least 30, got " + iaDays);
+        }
+
+        //creating a bucket
+        this.bucket = new BucketV2("assignments-bucket", BucketV2Args.builder()
+                .forceDestroy(true)
+                .tags(Map.of("Name", "assignments-bucket"))
+                .build(), child);
+
+        new BucketPublicAccessBlock("assignments-bucket-public-access-block", BucketPublicAccessBlockArgs.builder()
+                .bucket(bucket.id())
+                .blockPublicAcls(true)
+                .blockPublicPolicy(true)
+                .ignorePublicAcls(true)
+                .restrictPublicBuckets(true)
+                .build(), child);
+
+        var rule = BucketLifecycleConfigurationV2RuleArgs.builder()
+                .id("submissions")
+                .status("Enabled")
+                .filter(BucketLifecycleConfigurationV2RuleFilterArgs.builder()
+                        .prefix("")
+                        .build())
+                .abortIncompleteMultipartUpload(BucketLifecycleConfigurationV2RuleAbortIncompleteMultipartUploadArgs.builder()
+                        .daysAfterInitiation(1)
+                        .build());
+        rule.transitions(BucketLifecycleConfigurationV2RuleTransitionArgs.builder()
+                .days(iaDays)
+                .storageClass("STANDARD_IA")
+                .build());
+        config.getInteger("submissionExpirationDays").ifPresent(days -> rule.expiration(
+                BucketLifecycleConfigurationV2RuleExpirationArgs.builder()
+                        .days(days)
+                        .build()));
+        new BucketLifecycleConfigurationV2("assignments-bucket-lifecycle", BucketLifecycleConfigurationV2Args.builder()
+                .bucket(bucket.id())
+                .rules(rule.build())
+                .build(), child);
+
+        if (accelerated) {
+            new BucketAccelerateConfigurationV2("assignments-bucket-acceleration", BucketAccelerateConfigurationV2Args.builder()
+                    .bucket(bucket.id())
+                    .status("Enabled")
+                    .build(), child);
+        }
+    }
+
+    Output<String> bucketArn() {
+        return bucket.arn();
+    }
+
+    /**
+     * Environment variables the Lambda needs to upload to the bucket.
+     */
+    Output<Map<String, String>> lambdaEnvironment() {
+        return bucket.bucket().applyValue(name -> Map.of(
+                "submissionStore", "s3",
+                "bucketName", name,
+                "s3UseAccelerateEndpoint", String.valueOf(accelerated)));
+    }
+}
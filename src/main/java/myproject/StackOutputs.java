@@ -0,0 +1,168 @@
+package myproject;
+
+import com.pulumi.Context;
+import com.pulumi.core.Output;
+import com.pulumi.resources.StackReference;
+import com.pulumi.resources.StackReferenceArgs;
+
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Outputs of an upstream stack, read through a {@link StackReference}, and the matching
+ * exports on the producing side. The network stack exports the {@link Network} keys; the data
+ * stack exports the {@link Database} and {@link Messaging} keys and, with a cache, {@code cacheEndpoint}.
+ */
+final class StackOutputs implements Network, Database, Messaging {
+
+    private final StackReference reference;
+
+    StackOutputs(String name, String stackName) {
+        this.reference = new StackReference(name, StackReferenceArgs.builder()
+                .name(stackName)
+                .build());
+    }
+
+    static void exportNetwork(Context ctx, Network network) {
+        ctx.export("vpcId", network.vpcId());
+        ctx.export("publicSubnetIds", network.publicSubnetIds());
+        ctx.export("privateSubnetIds", network.privateSubnetIds());
+        ctx.export("dataSubnetIds", network.dataSubnetIds());
+        ctx.export("cacheSubnetIds", network.cacheSubnetIds());
+        ctx.export("computeSubnetIds", network.computeSubnetIds());
+        ctx.export("computeInPrivateSubnets", network.computeInPrivateSubnets());
+        ctx.export("privateSubnetsHaveEgress", network.privateSubnetsHaveEgress());
+        ctx.export("securityGroupForLBId", network.securityGroupForLBId());
+        ctx.export("securityGroupForEC2Id", network.securityGroupForEC2Id());
+        ctx.export("rdsSecurityGroupId", network.rdsSecurityGroupId());
+    }
+
+    static void exportData(Context ctx, Database database, Messaging messaging, Optional<Output<String>> cacheEndpoint) {
+        cacheEndpoint.ifPresent(endpoint -> ctx.export("cacheEndpoint", endpoint));
+        ctx.export("writerEndpoint", database.writerEndpoint());
+        ctx.export("readerEndpoint", database.readerEndpoint());
+        ctx.export("instanceIdentifier", database.instanceIdentifier());
+        ctx.export("snsTopicArn", messaging.snsTopicArn());
+        ctx.export("snsTopicName", messaging.snsTopicName());
+        ctx.export("emailTrackingTableName", messaging.emailTrackingTableName());
+        ctx.export("lambdaFunctionName", messaging.lambdaFunctionName());
+    }
+
+    Output<String> cacheEndpoint() {
+        return string("cacheEndpoint");
+    }
+
+    @Override
+    public Output<String> vpcId() {
+        return string("vpcId");
+    }
+
+    @Override
+    public Output<List<String>> publicSubnetIds() {
+        return list("publicSubnetIds");
+    }
+
+    @Override
+    public Output<List<String>> privateSubnetIds() {
+        return list("privateSubnetIds");
+    }
+
+    /**
+     * Network stacks deployed before the tier outputs existed keep every tier in the private subnets.
+     */
+    @Override
+    public Output<List<String>> dataSubnetIds() {
+        return Output.tuple(reference.getOutput("dataSubnetIds"), privateSubnetIds())
+                .applyValue(t -> t.t1 == null ? t.t2 : strings(t.t1));
+    }
+
+    @Override
+    public Output<List<String>> cacheSubnetIds() {
+        return Output.tuple(reference.getOutput("cacheSubnetIds"), privateSubnetIds())
+                .applyValue(t -> t.t1 == null ? t.t2 : strings(t.t1));
+    }
+
+    @Override
+    public Output<List<String>> computeSubnetIds() {
+        return list("computeSubnetIds");
+    }
+
+    @Override
+    public Output<Boolean> computeInPrivateSubnets() {
+        return reference.requireOutput("computeInPrivateSubnets").applyValue(value -> Boolean.valueOf(String.valueOf(value)));
+    }
+
+    /**
+     * Network stacks deployed before this output existed are not checked.
+     */
+    @Override
+    public Output<Boolean> privateSubnetsHaveEgress() {
+        return reference.getOutput("privateSubnetsHaveEgress").applyValue(value -> value == null || Boolean.parseBoolean(String.valueOf(value)));
+    }
+
+    @Override
+    public Output<String> securityGroupForLBId() {
+        return string("securityGroupForLBId");
+    }
+
+    @Override
+    public Output<String> securityGroupForEC2Id() {
+        return string("securityGroupForEC2Id");
+    }
+
+    @Override
+    public Output<String> rdsSecurityGroupId() {
+        return string("rdsSecurityGroupId");
+    }
+
+    @Override
+    public Output<String> writerEndpoint() {
+        return string("writerEndpoint");
+    }
+
+    @Override
+    public Output<String> readerEndpoint() {
+        return string("readerEndpoint");
+    }
+
+    @Override
+    public Output<String> instanceIdentifier() {
+        return string("instanceIdentifier");
+    }
+
+    @Override
+    public Output<String> snsTopicArn() {
+        return string("snsTopicArn");
+    }
+
+    @Override
+    public Output<String> snsTopicName() {
+        return string("snsTopicName");
+    }
+
+    @Override
+    public Output<String> emailTrackingTableName() {
+        return string("emailTrackingTableName");
+    }
+
+    @Override
+    public Output<String> lambdaFunctionName() {
+        return string("lambdaFunctionName");
+    }
+
+    private Output<String> string(String key) {
+        return reference.requireOutput(key).applyValue(String::valueOf);
+    }
+
+    private Output<List<String>> list(String key) {
+        return reference.requireOutput(key).applyValue(StackOutputs::strings);
+    }
+
+    private static List<String> strings(Object value) {
+        return ((List<?>) value).stream()
+                .map(String::valueOf)
+                .collect(toList());
+    }
+}
@@ -0,0 +1,65 @@
+package myproject;
+
+import com.pulumi.Config;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Typed lookups over stack config keys. Sizing code that only reads plain values takes this
+ * instead of {@link Config}, so it can be run from a map without a Pulumi deployment.
+ */
+final class StackSettings {
+
+    private final Function<String, Optional<String>> lookup;
+
+    private StackSettings(Function<String, Optional<String>> lookup) {
+        this.lookup = lookup;
+    }
+
+    static StackSettings of(Config config) {
+        return new StackSettings(config::get);
+    }
+
+    static StackSettings of(Map<String, String> values) {
+        return new StackSettings(key -> Optional.ofNullable(values.get(key)));
+    }
+
+    Optional<String> get(String key) {
+        return lookup.apply(key);
+    }
+
+    Optional<Integer> getInteger(String key) {
+        return get(key).map(value -> parse(key, value, Integer::valueOf));
+    }
+
+    Optional<Double> getDouble(String key) {
+        return get(key).map(value -> parse(key, value, Double::valueOf));
+    }
+
+    Optional<Boolean> getBoolean(String key) {
+        return get(key).map(value -> {
+            if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("Configuration '" + key + "' is not a boolean: " + value);
+            }
+            return Boolean.valueOf(value);
+        });
+    }
+
+    String require(String key) {
+        return get(key).orElseThrow(() -> new IllegalArgumentException("Missing required configuration variable '" + key + "'"));
+    }
+
+    int requireInteger(String key) {
+        return parse(key, require(key), Integer::valueOf);
+    }
+
+    private static <T> T parse(String key, String value, Function<String, T> parser) {
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Configuration '" + key + "' is not a number: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package myproject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carves non-overlapping IPv4 subnets out of a parent CIDR block.
+ * Addresses are handled as 32-bit integers, so any parent prefix works and
+ * each allocation is a couple of shifts and masks.
+ */
+final class SubnetAllocator {
+
+    // AWS only accepts VPC and subnet blocks between /16 and /28
+    static final int MIN_PREFIX = 16;
+    static final int MAX_PREFIX = 28;
+
+    private final int network;
+    private final int prefix;
+    private final long end;
+    private long cursor;
+
+    private SubnetAllocator(int network, int prefix) {
+        this.network = network;
+        this.prefix = prefix;
+        this.end = (network & 0xFFFFFFFFL) + blockSize(prefix);
+        this.cursor = network & 0xFFFFFFFFL;
+    }
+
+    static SubnetAllocator of(String cidr) {
+        int slash = cidr.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("CIDR block must be in a.b.c.d/n form: " + cidr);
+        }
+        int prefix = Integer.parseInt(cidr.substring(slash + 1).trim());
+        if (prefix < MIN_PREFIX || prefix > MAX_PREFIX) {
+            throw new IllegalArgumentException("VPC prefix must be between /" + MIN_PREFIX + " and /" + MAX_PREFIX + ": " + cidr);
+        }
+        int address = parseAddress(cidr.substring(0, slash));
+        return new SubnetAllocator(address & mask(prefix), prefix);
+    }
+
+    /**
+     * Smallest prefix length that splits this block into at least {@code count} equal subnets.
+     */
+    int prefixForCount(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Subnet count must be positive: " + count);
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(count - 1);
+        return prefix + bits;
+    }
+
+    /**
+     * Allocates the next free block of the given prefix length, aligned to its own size.
+     */
+    String allocate(int subnetPrefix) {
+        if (subnetPrefix < prefix || subnetPrefix > MAX_PREFIX) {
+            throw new IllegalArgumentException("Subnet prefix /" + subnetPrefix + " must be between /" + prefix + " and /" + MAX_PREFIX);
+        }
+        long size = blockSize(subnetPrefix);
+        long start = (cursor + size - 1) & -size;
+        if (start + size > end) {
+            throw new IllegalStateException("Address space " + format(network, prefix) + " exhausted allocating a /" + subnetPrefix);
+        }
+        cursor = start + size;
+        return format((int) start, subnetPrefix);
+    }
+
+    List<String> allocate(int count, int subnetPrefix) {
+        List<String> blocks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            blocks.add(allocate(subnetPrefix));
+        }
+        return blocks;
+    }
+
+    static int parseAddress(String address) {
+        int value = 0;
+        int octet = 0;
+        int octets = 0;
+        boolean digit = false;
+        for (int i = 0; i < address.length(); i++) {
+            char c = address.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                digit = true;
+                if (octet > 255) {
+                    throw new IllegalArgumentException("Invalid IPv4 address: " + address);
+                }
+            } else if (c == '.' && digit && octets < 3) {
+                value = (value << 8) | octet;
+                octet = 0;
+                octets++;
+                digit = false;
+            } else {
+                throw new IllegalArgumentException("Invalid IPv4 address: " + address);
+            }
+        }
+        if (!digit || octets != 3) {
+            throw new IllegalArgumentException("Invalid IPv4 address: " + address);
+        }
+        return (value << 8) | octet;
+    }
+
+    static String format(int address, int prefix) {
+        return new StringBuilder(18)
+                .append(address >>> 24).append('.')
+                .append((address >>> 16) & 0xFF).append('.')
+                .append((address >>> 8) & 0xFF).append('.')
+                .append(address & 0xFF)
+                .append('/').append(prefix)
+                .toString();
+    }
+
+    private static int mask(int prefix) {
+        return prefix == 0 ? 0 : -1 << (32 - prefix);
+    }
+
+    private static long blockSize(int prefix) {
+        return 1L << (32 - prefix);
+    }
+}
@@ -0,0 +1,69 @@
+package myproject;
+
+import com.pulumi.Config;
+import com.pulumi.aws.ec2.Route;
+import com.pulumi.aws.ec2.RouteArgs;
+import com.pulumi.aws.ec2.RouteTable;
+import com.pulumi.aws.ec2.SecurityGroupRule;
+import com.pulumi.aws.ec2.SecurityGroupRuleArgs;
+import com.pulumi.aws.ec2.VpcPeeringConnection;
+import com.pulumi.aws.ec2.VpcPeeringConnectionAccepter;
+import com.pulumi.aws.ec2.VpcPeeringConnectionAccepterArgs;
+import com.pulumi.aws.ec2.VpcPeeringConnectionArgs;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Peers a secondary region's VPC with the primary's, so its fleet can write to the primary
+ * database. Each side's resources are parented to that side's network component so they use
+ * its provider. Security groups cannot reference groups across regions, so the database rule
+ * opens the secondary VPC block.
+ */
+final class VpcPeering {
+
+    VpcPeering(Config config, Region region, NetworkComponent network, NetworkComponent primary) {
+        var child = Region.child(network).build();
+        var primaryChild = Region.child(primary).build();
+        int databasePort = config.requireInteger("databasePort");
+
+        var peering = new VpcPeeringConnection(region.resourceName("primaryPeering"), VpcPeeringConnectionArgs.builder()
+                .vpcId(network.vpcId())
+                .peerVpcId(primary.vpcId())
+                .peerRegion(config.require("region"))
+                .tags(Map.of("Name", region.resourceName("primaryPeering")))
+                .build(), child);
+
+        new VpcPeeringConnectionAccepter(region.resourceName("primaryPeeringAccepter"), VpcPeeringConnectionAccepterArgs.builder()
+                .vpcPeeringConnectionId(peering.id())
+                .autoAccept(true)
+                .build(), primaryChild);
+
+        List<RouteTable> routeTables = network.routeTables();
+        for (int i = 0; i < routeTables.size(); i++) {
+            new Route(region.resourceName("routeToPrimary" + i), RouteArgs.builder()
+                    .routeTableId(routeTables.get(i).id())
+                    .destinationCidrBlock(primary.vpc().cidrBlock())
+                    .vpcPeeringConnectionId(peering.id())
+                    .build(), child);
+        }
+        List<RouteTable> primaryRouteTables = primary.routeTables();
+        for (int i = 0; i < primaryRouteTables.size(); i++) {
+            new Route(region.resourceName("routeFromPrimary" + i), RouteArgs.builder()
+                    .routeTableId(primaryRouteTables.get(i).id())
+                    .destinationCidrBlock(network.vpc().cidrBlock())
+                    .vpcPeeringConnectionId(peering.id())
+                    .build(), primaryChild);
+        }
+
+        new SecurityGroupRule(region.resourceName("InboundRuleForRDSOn " + databasePort), SecurityGroupRuleArgs.builder()
+                .type("ingress")
+                .fromPort(databasePort)
+                .toPort(databasePort)
+                .protocol("tcp")
+                .cidrBlocks(network.vpc().cidrBlock().applyValue(Collections::singletonList))
+                .securityGroupId(primary.rdsSecurityGroupId())
+                .build(), primaryChild);
+    }
+}
@@ -0,0 +1,123 @@
+package myproject;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CapacityPlanTest {
+
+    @Test
+    void sizesModerateWebAndEmailProfile() {
+        var plan = plan(Map.of(
+                "num_of_subnets", "3",
+                "workloadPeakRps", "200",
+                "workloadEmailsPerMinute", "600"));
+
+        // 200 rps x 20 ms at 75% utilization is 5.3 vCPUs: three m6i.large, one per zone
+        assertEquals("m6i.large", plan.instanceType());
+        assertEquals(3, plan.desiredCapacity());
+        assertEquals(3, plan.minInstances());
+        assertEquals(5, plan.maxInstances());
+        // 200 x 2 queries, writes counted twice: 480 qps
+        assertEquals("db.t3.small", plan.rdsInstanceClass());
+        // 10 emails/s at 70% target utilization
+        assertEquals(15, plan.dynamoReadCapacity());
+        assertEquals(15, plan.dynamoWriteCapacity());
+        assertEquals(60, plan.dynamoMaxReadCapacity());
+        assertEquals(60, plan.dynamoMaxWriteCapacity());
+        // 10/s x 0.5 s x 1.5 burst
+        assertEquals(8, plan.lambdaReservedConcurrency());
+    }
+
+    @Test
+    void sizesHeavyWebProfileWithTightLatency() {
+        var plan = plan(Map.of(
+                "num_of_subnets", "2",
+                "workloadPeakRps", "5000",
+                "workloadP99Millis", "200"));
+
+        // A 200 ms p99 leaves 54% utilization: 185 vCPUs, more than four 4xlarge per zone
+        assertEquals("m6i.8xlarge", plan.instanceType());
+        assertEquals(6, plan.desiredCapacity());
+        assertEquals(2, plan.minInstances());
+        assertEquals(9, plan.maxInstances());
+        assertEquals("db.m6g.2xlarge", plan.rdsInstanceClass());
+    }
+
+    @Test
+    void leavesTableAndLambdaAloneWithoutAnEmailRate() {
+        for (String rate : new String[]{null, "0"}) {
+            Map<String, String> config = new HashMap<>(Map.of(
+                    "num_of_subnets", "2",
+                    "workloadPeakRps", "5000"));
+            if (rate != null) {
+                config.put("workloadEmailsPerMinute", rate);
+            }
+            var plan = plan(config);
+
+            assertEquals(5, plan.dynamoReadCapacity());
+            assertEquals(5, plan.dynamoWriteCapacity());
+            assertEquals(5, plan.dynamoMaxReadCapacity());
+            assertEquals(5, plan.dynamoMaxWriteCapacity());
+            assertEquals(-1, plan.lambdaReservedConcurrency());
+        }
+    }
+
+    @Test
+    void pinnedKeysOverrideTheProfile() {
+        var plan = plan(Map.of(
+                "num_of_subnets", "3",
+                "workloadPeakRps", "200",
+                "workloadEmailsPerMinute", "600",
+                "instanceType", "c7g.large",
+                "maxInstances", "12",
+                "lambdaReservedConcurrency", "50"));
+
+        assertEquals("c7g.large", plan.instanceType());
+        assertEquals(12, plan.maxInstances());
+        assertEquals(3, plan.desiredCapacity());
+        assertEquals(50, plan.lambdaReservedConcurrency());
+    }
+
+    @Test
+    void withoutProfileRequiresExplicitSizes() {
+        var plan = plan(Map.of("instanceType", "t3.micro", "minInstances", "1"));
+
+        assertEquals("t3.micro", plan.instanceType());
+        assertEquals(1, plan.minInstances());
+        assertEquals(5, plan.dynamoReadCapacity());
+        assertEquals(-1, plan.lambdaReservedConcurrency());
+        assertThrows(IllegalArgumentException.class, plan::maxInstances);
+    }
+
+    @Test
+    void reservedConcurrencyCoversProvisionedConcurrency() {
+        var plan = plan(Map.of(
+                "num_of_subnets", "2",
+                "workloadPeakRps", "10",
+                "workloadEmailsPerMinute", "6",
+                "lambdaProvisionedConcurrency", "5"));
+
+        // 0.1 emails/s alone would reserve a single execution
+        assertEquals(5, plan.lambdaProvisionedConcurrency());
+        assertEquals(5, plan.lambdaReservedConcurrency());
+    }
+
+    @Test
+    void rejectsReservedConcurrencyBelowProvisioned() {
+        var plan = plan(Map.of(
+                "lambdaReservedConcurrency", "2",
+                "lambdaProvisionedConcurrency", "5"));
+
+        assertThrows(IllegalArgumentException.class, plan::lambdaReservedConcurrency);
+        assertEquals(-1, plan(Map.of("lambdaProvisionedConcurrency", "5")).lambdaReservedConcurrency());
+    }
+
+    private static CapacityPlan plan(Map<String, String> config) {
+        return CapacityPlan.of(StackSettings.of(config));
+    }
+}
@@ -0,0 +1,62 @@
+package myproject;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetSettingsTest {
+
+    @Test
+    void warmPoolIsOffByDefault() {
+        assertEquals(Optional.empty(), FleetSettings.warmPoolSize(StackSettings.of(Map.of())));
+        assertEquals(Optional.empty(), FleetSettings.warmPoolSize(StackSettings.of(Map.of(
+                "asgWarmPoolSize", "0",
+                "instanceTypes", "m6i.large,m5.large"))));
+    }
+
+    @Test
+    void warmPoolOnASingleTypeOnDemandGroup() {
+        assertEquals(Optional.of(2), FleetSettings.warmPoolSize(StackSettings.of(Map.of(
+                "asgWarmPoolSize", "2",
+                "spotPercentage", "0"))));
+    }
+
+    @Test
+    void rejectsWarmPoolWithMixedInstanceTypes() {
+        var error = assertThrows(IllegalArgumentException.class, () -> FleetSettings.warmPoolSize(StackSettings.of(Map.of(
+                "asgWarmPoolSize", "2",
+                "instanceTypes", "m6i.large,m5.large"))));
+        assertTrue(error.getMessage().contains("instanceTypes"), error.getMessage());
+    }
+
+    @Test
+    void rejectsWarmPoolWithSpotCapacity() {
+        var error = assertThrows(IllegalArgumentException.class, () -> FleetSettings.warmPoolSize(StackSettings.of(Map.of(
+                "asgWarmPoolSize", "2",
+                "spotPercentage", "50"))));
+        assertTrue(error.getMessage().contains("spotPercentage"), error.getMessage());
+    }
+
+    @Test
+    void refreshCheckpointsEndAtOneHundred() {
+        assertEquals(Optional.empty(), FleetSettings.refreshCheckpoints(StackSettings.of(Map.of())));
+        assertEquals(Optional.of(List.of(25, 50, 100)), FleetSettings.refreshCheckpoints(StackSettings.of(Map.of(
+                "asgRefreshCheckpoints", "25, 50"))));
+        assertEquals(Optional.of(List.of(20, 100)), FleetSettings.refreshCheckpoints(StackSettings.of(Map.of(
+                "asgRefreshCheckpoints", "20,100"))));
+    }
+
+    @Test
+    void rejectsInvalidRefreshCheckpoints() {
+        for (String checkpoints : List.of("50,25", "25,25", "0,50", "50,101", "25,half", "")) {
+            assertThrows(IllegalArgumentException.class, () -> FleetSettings.refreshCheckpoints(StackSettings.of(Map.of(
+                    "asgRefreshCheckpoints", checkpoints))), checkpoints);
+        }
+    }
+}
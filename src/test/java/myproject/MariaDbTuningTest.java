@@ -0,0 +1,155 @@
+package myproject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MariaDbTuningTest {
+
+    private static final long MIB = 1024L * 1024;
+    private static final long GIB = 1024 * MIB;
+
+    @Test
+    void smallClassesKeepHalfTheMemoryOutOfTheBufferPool() {
+        var values = values("db.t3.micro", Map.of());
+
+        assertEquals(String.valueOf(512 * MIB), values.get("innodb_buffer_pool_size"));
+        // 512 MiB left at 4 MiB per connection
+        assertEquals("128", values.get("max_connections"));
+        assertEquals(String.valueOf(128 * MIB), values.get("innodb_log_file_size"));
+        assertEquals("2", values.get("thread_pool_size"));
+    }
+
+    @Test
+    void midSizeClassesGiveTheBufferPoolTwoThirds() {
+        var values = values("db.m6g.large", Map.of());
+
+        // 65% of 8 GiB rounded down to 128 MiB
+        assertEquals(String.valueOf(41 * 128 * MIB), values.get("innodb_buffer_pool_size"));
+        assertEquals("736", values.get("max_connections"));
+        assertEquals(String.valueOf(20 * 64 * MIB), values.get("innodb_log_file_size"));
+        assertEquals("2", values.get("thread_pool_size"));
+        assertEquals("736", values.get("thread_pool_max_threads"));
+    }
+
+    @Test
+    void largeClassesGiveTheBufferPoolThreeQuarters() {
+        var values = values("db.r6g.xlarge", Map.of());
+
+        assertEquals(String.valueOf(24 * GIB), values.get("innodb_buffer_pool_size"));
+        assertEquals("2048", values.get("max_connections"));
+        assertEquals("4", values.get("thread_pool_size"));
+    }
+
+    /**
+     * Memory and vCPUs from the RDS instance class specifications, including every class
+     * {@link CapacityPlan} can choose. Deriving from the class name must give the same
+     * parameters as stating them with rdsMemoryGiB and rdsVcpus.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "db.t3.micro, 1, 2",
+            "db.t3.small, 2, 2",
+            "db.t3.medium, 4, 2",
+            "db.t3.large, 8, 2",
+            "db.t3.xlarge, 16, 4",
+            "db.t3.2xlarge, 32, 8",
+            "db.t4g.micro, 1, 2",
+            "db.t4g.medium, 4, 2",
+            "db.t4g.2xlarge, 32, 8",
+            "db.m5.large, 8, 2",
+            "db.m6g.large, 8, 2",
+            "db.m6g.xlarge, 16, 4",
+            "db.m6g.2xlarge, 32, 8",
+            "db.m6g.4xlarge, 64, 16",
+            "db.m6g.8xlarge, 128, 32",
+            "db.m6i.12xlarge, 192, 48",
+            "db.m6g.16xlarge, 256, 64",
+            "db.r5.large, 16, 2",
+            "db.r6g.large, 16, 2",
+            "db.r6g.xlarge, 32, 4",
+            "db.r6g.2xlarge, 64, 8",
+            "db.r6g.4xlarge, 128, 16",
+            "db.r6i.8xlarge, 256, 32",
+            "db.r6g.16xlarge, 512, 64",
+            "db.x2g.large, 32, 2",
+            "db.x2g.xlarge, 64, 4",
+            "db.x2g.2xlarge, 128, 8",
+            "db.x2g.4xlarge, 256, 16",
+            "db.x2g.16xlarge, 1024, 64"
+    })
+    void derivesEverySupportedClassFromItsSpecification(String instanceClass, int memoryGiB, int vcpus) {
+        var derived = values(instanceClass, Map.of());
+        var stated = values(instanceClass, Map.of("rdsMemoryGiB", String.valueOf(memoryGiB), "rdsVcpus", String.valueOf(vcpus)));
+
+        assertEquals(stated, derived);
+        assertEquals(String.valueOf(vcpus), derived.get("thread_pool_size"));
+        long bufferPool = Long.parseLong(derived.get("innodb_buffer_pool_size"));
+        assertTrue(bufferPool >= memoryGiB * GIB / 2 && bufferPool <= memoryGiB * GIB * 3 / 4, instanceClass);
+    }
+
+    @Test
+    void ioCapacityFollowsTheStorageIops() {
+        // gp2 gets 3 IOPS per GiB, at least 100
+        assertEquals("200", values("db.m6g.large", Map.of()).get("innodb_io_capacity"));
+        assertEquals("2000", values("db.m6g.large", Map.of()).get("innodb_io_capacity_max"));
+        var gp2 = values("db.m6g.large", Map.of("rdsAllocatedStorage", "2000"));
+        assertEquals("3000", gp2.get("innodb_io_capacity"));
+        assertEquals("6000", gp2.get("innodb_io_capacity_max"));
+
+        var gp3 = values("db.m6g.large", Map.of("rdsStorageType", "gp3"));
+        assertEquals("1500", gp3.get("innodb_io_capacity"));
+        assertEquals("3000", gp3.get("innodb_io_capacity_max"));
+
+        var io1 = values("db.m6g.large", Map.of("rdsStorageType", "io1", "rdsIops", "12000"));
+        assertEquals("6000", io1.get("innodb_io_capacity"));
+        assertEquals("12000", io1.get("innodb_io_capacity_max"));
+    }
+
+    @Test
+    void rdsParametersOverrideAndExtendTheDerivedValues() {
+        var values = values("db.m6g.large", Map.of(
+                "rdsParameters", "max_connections=500; innodb_io_capacity = 4000;character_set_server=utf8mb4"));
+
+        assertEquals("500", values.get("max_connections"));
+        assertEquals("4000", values.get("innodb_io_capacity"));
+        assertEquals("utf8mb4", values.get("character_set_server"));
+        assertEquals(String.valueOf(41 * 128 * MIB), values.get("innodb_buffer_pool_size"));
+    }
+
+    @Test
+    void disabledTuningOnlyKeepsOverrides() {
+        var values = values("db.m6g.large", Map.of(
+                "rdsTuningEnabled", "false",
+                "rdsParameters", "max_connections=500"));
+
+        assertEquals(Map.of("max_connections", "500"), values);
+    }
+
+    @Test
+    void unknownClassesNeedExplicitSizes() {
+        assertThrows(IllegalArgumentException.class, () -> values("db.z1d.large", Map.of()));
+
+        var values = values("db.z1d.large", Map.of("rdsMemoryGiB", "16", "rdsVcpus", "2"));
+        assertEquals(String.valueOf(12 * GIB), values.get("innodb_buffer_pool_size"));
+        assertEquals("2", values.get("thread_pool_size"));
+    }
+
+    @Test
+    void rejectsMalformedOverrides() {
+        assertThrows(IllegalArgumentException.class, () -> values("db.m6g.large", Map.of("rdsParameters", "max_connections")));
+    }
+
+    private static Map<String, String> values(String instanceClass, Map<String, String> overrides) {
+        Map<String, String> config = new HashMap<>(Map.of("rdsAllocatedStorage", "20"));
+        config.putAll(overrides);
+        return MariaDbTuning.of(StackSettings.of(config), instanceClass).values();
+    }
+}
@@ -0,0 +1,60 @@
+package myproject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to plan the public, private, data and cache subnets of {@code vpcs} VPCs with
+ * {@code zones} subnets per tier, the way {@link NetworkComponent} carves them.
+ * Run with {@code mvn -Pallocator-benchmark verify}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SubnetAllocatorBenchmark {
+
+    private static final int TIERS = 4;
+
+    @Param({"1", "256", "4096"})
+    public int vpcs;
+
+    @Param({"3", "6"})
+    public int zones;
+
+    private String[] cidrs;
+
+    @Setup
+    public void setUp() {
+        cidrs = new String[vpcs];
+        for (int i = 0; i < vpcs; i++) {
+            // Consecutive /16 blocks, as a fleet of non-overlapping VPCs would use
+            cidrs[i] = SubnetAllocator.format((10 << 24) + (i << 16), 16);
+        }
+    }
+
+    @Benchmark
+    public void planSubnets(Blackhole blackhole) {
+        for (String cidr : cidrs) {
+            SubnetAllocator allocator = SubnetAllocator.of(cidr);
+            int prefix = allocator.prefixForCount(TIERS * zones);
+            for (int tier = 0; tier < TIERS; tier++) {
+                blackhole.consume(allocator.allocate(zones, prefix));
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package myproject;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubnetAllocatorTest {
+
+    @Test
+    void fillsEveryParentWithAlignedDisjointBlocksOfEverySize() {
+        for (int parent = SubnetAllocator.MIN_PREFIX; parent <= SubnetAllocator.MAX_PREFIX; parent++) {
+            for (int subnet = parent; subnet <= SubnetAllocator.MAX_PREFIX; subnet++) {
+                String cidr = "10.128.0.0/" + parent;
+                SubnetAllocator allocator = SubnetAllocator.of(cidr);
+                List<String> blocks = allocator.allocate(1 << (subnet - parent), subnet);
+
+                assertValid(cidr, blocks);
+                int last = subnet;
+                assertThrows(IllegalStateException.class, () -> allocator.allocate(last),
+                        () -> cidr + " should be exhausted after " + blocks.size() + " /" + last + " blocks");
+            }
+        }
+    }
+
+    @Test
+    void mixedPrefixesStayAlignedAndDisjoint() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+            int parent = SubnetAllocator.MIN_PREFIX + random.nextInt(SubnetAllocator.MAX_PREFIX - SubnetAllocator.MIN_PREFIX + 1);
+            String cidr = SubnetAllocator.format(random.nextInt(), parent);
+            SubnetAllocator allocator = SubnetAllocator.of(cidr);
+            List<String> blocks = new ArrayList<>();
+            try {
+                while (true) {
+                    blocks.add(allocator.allocate(parent + random.nextInt(SubnetAllocator.MAX_PREFIX - parent + 1)));
+                }
+            } catch (IllegalStateException exhausted) {
+                // Expected once the next block no longer fits
+            }
+            assertTrue(!blocks.isEmpty(), cidr);
+            assertValid(cidr, blocks);
+        }
+    }
+
+    @Test
+    void masksHostBitsOfTheParentBlock() {
+        SubnetAllocator allocator = SubnetAllocator.of("10.0.77.9/16");
+        assertEquals(List.of("10.0.0.0/18", "10.0.64.0/18"), allocator.allocate(2, 18));
+    }
+
+    @Test
+    void alignsAfterASmallerBlock() {
+        SubnetAllocator allocator = SubnetAllocator.of("10.0.0.0/16");
+        assertEquals("10.0.0.0/24", allocator.allocate(24));
+        assertEquals("10.0.16.0/20", allocator.allocate(20));
+        assertEquals("10.0.1.0/24", SubnetAllocator.of("10.0.0.0/16").allocate(2, 24).get(1));
+    }
+
+    @Test
+    void sizesPrefixForCount() {
+        SubnetAllocator allocator = SubnetAllocator.of("10.0.0.0/16");
+        assertEquals(16, allocator.prefixForCount(1));
+        assertEquals(17, allocator.prefixForCount(2));
+        assertEquals(19, allocator.prefixForCount(6));
+        assertEquals(19, allocator.prefixForCount(8));
+        assertEquals(20, allocator.prefixForCount(9));
+        assertThrows(IllegalArgumentException.class, () -> allocator.prefixForCount(0));
+    }
+
+    @Test
+    void rejectsParentPrefixesAwsDoesNotAccept() {
+        assertThrows(IllegalArgumentException.class, () -> SubnetAllocator.of("10.0.0.0/15"));
+        assertThrows(IllegalArgumentException.class, () -> SubnetAllocator.of("10.0.0.0/29"));
+    }
+
+    @Test
+    void rejectsSubnetPrefixesOutsideTheParent() {
+        SubnetAllocator allocator = SubnetAllocator.of("10.0.0.0/20");
+        assertThrows(IllegalArgumentException.class, () -> allocator.allocate(19));
+        assertThrows(IllegalArgumentException.class, () -> allocator.allocate(29));
+    }
+
+    @Test
+    void rejectsBlocksThatDoNotFit() {
+        SubnetAllocator allocator = SubnetAllocator.of("10.0.0.0/24");
+        allocator.allocate(28);
+        assertThrows(IllegalStateException.class, () -> allocator.allocate(24));
+        assertThrows(IllegalStateException.class, () -> SubnetAllocator.of("10.0.0.0/24").allocate(3, 25));
+    }
+
+    @Test
+    void rejectsMalformedBlocks() {
+        for (String cidr : List.of("10.0.0.0", "10.0.0/16", "10.0.0.0.0/16", "256.0.0.0/16", "10.0..0/16", "10.a.0.0/16", "10.0.0.0/x")) {
+            assertThrows(IllegalArgumentException.class, () -> SubnetAllocator.of(cidr), cidr);
+        }
+    }
+
+    /**
+     * Each block lies inside {@code cidr}, starts on a multiple of its own size and begins at or
+     * after the end of the block before it; allocation order is address order, so that also
+     * rules out overlaps.
+     */
+    private static void assertValid(String cidr, List<String> blocks) {
+        long parentStart = start(cidr);
+        long parentEnd = parentStart + size(cidr);
+        long previousEnd = parentStart;
+        for (String block : blocks) {
+            long start = start(block);
+            long size = size(block);
+            assertEquals(0, start % size, () -> block + " is not aligned to its size");
+            assertTrue(start >= previousEnd, () -> block + " overlaps the block before it in " + blocks);
+            assertTrue(start + size <= parentEnd, () -> block + " lies outside " + cidr);
+            previousEnd = start + size;
+        }
+    }
+
+    private static long start(String cidr) {
+        int prefix = prefix(cidr);
+        long address = SubnetAllocator.parseAddress(cidr.substring(0, cidr.indexOf('/'))) & 0xFFFFFFFFL;
+        return address & ~(size(prefix) - 1);
+    }
+
+    private static long size(String cidr) {
+        return size(prefix(cidr));
+    }
+
+    private static long size(int prefix) {
+        return 1L << (32 - prefix);
+    }
+
+    private static int prefix(String cidr) {
+        return Integer.parseInt(cidr.substring(cidr.indexOf('/') + 1));
+    }
+}
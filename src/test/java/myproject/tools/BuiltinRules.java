@@ -0,0 +1,176 @@
+package myproject.tools;
+
+import com.pulumi.test.Mocks.ResourceArgs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Performance rules for the defaults this stack has shipped with: burstable and previous
+ * generation instances, gp2 volumes, fixed DynamoDB capacity, single-AZ databases, slow
+ * health checks, single-period scaling alarms, Lambda at its minimum memory and untuned
+ * RDS parameter groups.
+ */
+public final class BuiltinRules {
+
+    static final String LAUNCH_TEMPLATE = "aws:ec2/launchTemplate:LaunchTemplate";
+    static final String RDS_INSTANCE = "aws:rds/instance:Instance";
+    static final String RDS_PARAMETER_GROUP = "aws:rds/parameterGroup:ParameterGroup";
+    static final String TABLE = "aws:dynamodb/table:Table";
+    static final String SCALING_TARGET = "aws:appautoscaling/target:Target";
+    static final String TARGET_GROUP = "aws:lb/targetGroup:TargetGroup";
+    static final String METRIC_ALARM = "aws:cloudwatch/metricAlarm:MetricAlarm";
+    static final String FUNCTION = "aws:lambda/function:Function";
+
+    private BuiltinRules() {
+    }
+
+    public static List<PerformanceRule> all() {
+        return List.of(
+                perResource("burstable-instance", LAUNCH_TEMPLATE, (resource, findings) -> {
+                    String type = string(resource.inputs.get("instanceType"));
+                    if (type.startsWith("t")) {
+                        findings.add(finding("burstable-instance", type.startsWith("t2.") ? Severity.ERROR : Severity.WARNING, resource,
+                                type + " throttles to its baseline once CPU credits run out"));
+                    }
+                }),
+                perResource("burstable-database", RDS_INSTANCE, (resource, findings) -> {
+                    String instanceClass = string(resource.inputs.get("instanceClass"));
+                    if (instanceClass.startsWith("db.t")) {
+                        findings.add(finding("burstable-database", instanceClass.startsWith("db.t2.") ? Severity.ERROR : Severity.WARNING,
+                                resource, instanceClass + " throttles to its baseline once CPU credits run out"));
+                    }
+                }),
+                perResource("gp2-volume", LAUNCH_TEMPLATE, (resource, findings) -> {
+                    for (Object mapping : list(resource.inputs.get("blockDeviceMappings"))) {
+                        Object ebs = map(mapping).get("ebs");
+                        if ("gp2".equals(string(map(ebs).get("volumeType")))) {
+                            findings.add(finding("gp2-volume", Severity.WARNING, resource,
+                                    "gp2 IOPS scale with size; gp3 gives 3000 IOPS at any size for less"));
+                        }
+                    }
+                }),
+                perResource("gp2-database-storage", RDS_INSTANCE, (resource, findings) -> {
+                    String storageType = string(resource.inputs.get("storageType"));
+                    if (!isReplica(resource) && (storageType.isEmpty() || storageType.equals("gp2"))) {
+                        findings.add(finding("gp2-database-storage", Severity.WARNING, resource,
+                                "gp2 storage gets 3 IOPS per GiB; set rdsStorageType gp3"));
+                    }
+                }),
+                perResource("single-az-database", RDS_INSTANCE, (resource, findings) -> {
+                    if (!isReplica(resource) && !Boolean.TRUE.equals(resource.inputs.get("multiAz"))) {
+                        findings.add(finding("single-az-database", Severity.WARNING, resource,
+                                "a single-AZ primary goes down for the whole failover and for maintenance"));
+                    }
+                }),
+                new PerformanceRule() {
+                    @Override
+                    public String id() {
+                        return "fixed-table-capacity";
+                    }
+
+                    @Override
+                    public List<Finding> check(List<ResourceArgs> resources) {
+                        boolean tableScaling = resources.stream()
+                                .filter(resource -> resource.type.equals(SCALING_TARGET))
+                                .anyMatch(resource -> "dynamodb".equals(string(resource.inputs.get("serviceNamespace"))));
+                        List<Finding> findings = new ArrayList<>();
+                        for (ResourceArgs resource : resources) {
+                            if (resource.type.equals(TABLE) && !"PAY_PER_REQUEST".equals(string(resource.inputs.get("billingMode")))
+                                    && !tableScaling) {
+                                findings.add(finding(id(), Severity.WARNING, resource, String.format(
+                                        "fixed %s/%s read/write capacity throttles bursts; use auto scaling or on-demand",
+                                        string(resource.inputs.get("readCapacity")), string(resource.inputs.get("writeCapacity")))));
+                            }
+                        }
+                        return findings;
+                    }
+                },
+                perResource("slow-health-check", TARGET_GROUP, (resource, findings) -> {
+                    Map<String, Object> healthCheck = map(resource.inputs.get("healthCheck"));
+                    double interval = number(healthCheck.get("interval"), 30);
+                    double healthyThreshold = number(healthCheck.get("healthyThreshold"), 3);
+                    // New instances take interval * healthyThreshold seconds to receive traffic
+                    if (interval * healthyThreshold > 60) {
+                        findings.add(finding("slow-health-check", Severity.WARNING, resource, String.format(
+                                "new targets wait %.0fs (%.0fs interval x %.0f checks) before taking traffic",
+                                interval * healthyThreshold, interval, healthyThreshold)));
+                    }
+                }),
+                perResource("single-period-scaling-alarm", METRIC_ALARM, (resource, findings) -> {
+                    boolean scales = list(resource.inputs.get("alarmActions")).stream()
+                            .anyMatch(action -> string(action).contains("autoscaling"));
+                    if (scales && number(resource.inputs.get("evaluationPeriods"), 1) <= 1) {
+                        findings.add(finding("single-period-scaling-alarm", Severity.WARNING, resource,
+                                "scaling on one datapoint flaps on short spikes; use target tracking or more periods"));
+                    }
+                }),
+                perResource("lambda-default-memory", FUNCTION, (resource, findings) -> {
+                    double memory = number(resource.inputs.get("memorySize"), 128);
+                    if (memory <= 128) {
+                        findings.add(finding("lambda-default-memory", Severity.WARNING, resource,
+                                "128 MB also gets the smallest CPU share, which slows cold starts and SDK calls"));
+                    }
+                }),
+                perResource("empty-parameter-group", RDS_PARAMETER_GROUP, (resource, findings) -> {
+                    if (list(resource.inputs.get("parameters")).isEmpty()) {
+                        findings.add(finding("empty-parameter-group", Severity.WARNING, resource,
+                                "no parameters: the engine runs on defaults whatever the instance class"));
+                    }
+                }));
+    }
+
+    /**
+     * A rule that looks at each resource of one type on its own.
+     */
+    static PerformanceRule perResource(String id, String type, BiConsumer<ResourceArgs, List<Finding>> check) {
+        return new PerformanceRule() {
+            @Override
+            public String id() {
+                return id;
+            }
+
+            @Override
+            public List<Finding> check(List<ResourceArgs> resources) {
+                List<Finding> findings = new ArrayList<>();
+                for (ResourceArgs resource : resources) {
+                    if (resource.type.equals(type)) {
+                        check.accept(resource, findings);
+                    }
+                }
+                return findings;
+            }
+        };
+    }
+
+    static Finding finding(String rule, Severity severity, ResourceArgs resource, String message) {
+        return new Finding(rule, severity, resource.name, message);
+    }
+
+    private static boolean isReplica(ResourceArgs resource) {
+        return !string(resource.inputs.get("replicateSourceDb")).isEmpty();
+    }
+
+    private static String string(Object value) {
+        return value == null ? "" : String.valueOf(value);
+    }
+
+    private static double number(Object value, double defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value == null ? defaultValue : Double.parseDouble(String.valueOf(value));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    private static List<?> list(Object value) {
+        return value instanceof List ? (List<?>) value : Collections.emptyList();
+    }
+}
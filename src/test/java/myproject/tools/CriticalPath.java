@@ -0,0 +1,168 @@
+package myproject.tools;
+
+import com.pulumi.test.Mocks.ResourceArgs;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates how long a fresh {@code pulumi up} takes when the engine creates every resource
+ * as soon as its inputs are known. Dependencies are inferred under {@link MockedStack}: a
+ * resource depends on another when its inputs contain one of the other's mock outputs. Each
+ * resource type gets an estimated create time, and the longest chain bounds the deployment.
+ * Explicit {@code dependsOn} edges are not visible to the mocks and are not counted.
+ * <p>
+ * System properties: {@code path.stackFile} (default {@code Pulumi.dev.yaml}) and
+ * {@code path.estimates}, {@code type=seconds} entries separated by ',' that override or add
+ * to the built-in estimates.
+ */
+public final class CriticalPath {
+
+    // Typical create times in seconds; anything not listed is a quick API call
+    private static final Map<String, Double> CREATE_SECONDS = new HashMap<>(Map.ofEntries(
+            Map.entry("aws:rds/instance:Instance", 600.0),
+            Map.entry("aws:rds/proxy:Proxy", 300.0),
+            Map.entry("aws:rds/proxyTarget:ProxyTarget", 120.0),
+            Map.entry("aws:elasticache/replicationGroup:ReplicationGroup", 600.0),
+            Map.entry("aws:elasticache/cluster:Cluster", 420.0),
+            Map.entry("aws:dax/cluster:Cluster", 600.0),
+            Map.entry("aws:cloudfront/distribution:Distribution", 300.0),
+            Map.entry("aws:lb/loadBalancer:LoadBalancer", 180.0),
+            Map.entry("aws:ec2/natGateway:NatGateway", 120.0),
+            Map.entry("aws:ec2/vpcEndpoint:VpcEndpoint", 90.0),
+            Map.entry("aws:autoscaling/group:Group", 60.0),
+            Map.entry("aws:ec2/vpcPeeringConnection:VpcPeeringConnection", 15.0),
+            Map.entry("aws:lambda/function:Function", 15.0),
+            Map.entry("aws:lambda/provisionedConcurrencyConfig:ProvisionedConcurrencyConfig", 120.0),
+            Map.entry("aws:dynamodb/table:Table", 20.0),
+            Map.entry("aws:iam/role:Role", 10.0),
+            Map.entry("aws:iam/instanceProfile:InstanceProfile", 10.0)));
+    private static final double DEFAULT_SECONDS = 3.0;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--fork".equals(args[0])) {
+            report();
+            return;
+        }
+        Path stackFile = Path.of(System.getProperty("path.stackFile", "Pulumi.dev.yaml"));
+        System.exit(MockedStack.fork(CriticalPath.class, stackFile, List.of("path.estimates")));
+    }
+
+    /**
+     * Runs inside the forked JVM; prints the longest chain with its cumulative time.
+     */
+    private static void report() {
+        for (String entry : System.getProperty("path.estimates", "").split(",")) {
+            if (!entry.isBlank()) {
+                String[] pair = entry.trim().split("=");
+                CREATE_SECONDS.put(pair[0], Double.parseDouble(pair[1]));
+            }
+        }
+
+        List<ResourceArgs> resources = new MockedStack(3).run();
+        List<Set<Integer>> dependencies = dependencies(resources);
+
+        // Registration order is a topological order: a resource can only consume outputs of
+        // resources registered before it
+        double[] finish = new double[resources.size()];
+        int[] previous = new int[resources.size()];
+        int last = -1;
+        double serial = 0;
+        for (int i = 0; i < resources.size(); i++) {
+            double start = 0;
+            previous[i] = -1;
+            for (int dependency : dependencies.get(i)) {
+                if (finish[dependency] > start) {
+                    start = finish[dependency];
+                    previous[i] = dependency;
+                }
+            }
+            double seconds = estimate(resources.get(i));
+            finish[i] = start + seconds;
+            serial += seconds;
+            if (last < 0 || finish[i] > finish[last]) {
+                last = i;
+            }
+        }
+        if (last < 0) {
+            System.out.println("No resources registered");
+            return;
+        }
+
+        List<Integer> chain = new ArrayList<>();
+        for (int i = last; i >= 0; i = previous[i]) {
+            chain.add(0, i);
+        }
+        System.out.printf("%10s %10s  %-56s %s%n", "create(s)", "done(s)", "type", "name");
+        for (int i : chain) {
+            ResourceArgs resource = resources.get(i);
+            System.out.printf("%10.0f %10.0f  %-56s %s%n", estimate(resource), finish[i], resource.type, resource.name);
+        }
+        System.out.printf("Critical path %.0fs over %d resources; %d resources would take %.0fs one after another%n",
+                finish[last], chain.size(), resources.size(), serial);
+    }
+
+    private static List<Set<Integer>> dependencies(List<ResourceArgs> resources) {
+        Map<String, Set<Integer>> producers = new HashMap<>();
+        for (int i = 0; i < resources.size(); i++) {
+            for (String token : MockedStack.outputTokens(resources.get(i))) {
+                producers.computeIfAbsent(token, key -> new LinkedHashSet<>()).add(i);
+            }
+        }
+        List<Set<Integer>> dependencies = new ArrayList<>();
+        for (int i = 0; i < resources.size(); i++) {
+            Set<Integer> found = new LinkedHashSet<>();
+            List<String> strings = new ArrayList<>();
+            collectStrings(resources.get(i).inputs, strings);
+            for (String value : strings) {
+                for (var producer : producers.entrySet()) {
+                    if (containsToken(value, producer.getKey())) {
+                        for (int dependency : producer.getValue()) {
+                            if (dependency < i) {
+                                found.add(dependency);
+                            }
+                        }
+                    }
+                }
+            }
+            dependencies.add(found);
+        }
+        return dependencies;
+    }
+
+    private static void collectStrings(Object value, List<String> strings) {
+        if (value instanceof String) {
+            strings.add((String) value);
+        } else if (value instanceof Map) {
+            ((Map<?, ?>) value).values().forEach(item -> collectStrings(item, strings));
+        } else if (value instanceof List) {
+            ((List<?>) value).forEach(item -> collectStrings(item, strings));
+        }
+    }
+
+    // Token boundaries keep "data_id" from matching "rdsdata_id" or "arn:...:data" from matching "arn:...:data2"
+    private static boolean containsToken(String value, String token) {
+        for (int at = value.indexOf(token); at >= 0; at = value.indexOf(token, at + 1)) {
+            boolean startsClean = at == 0 || !isNameChar(value.charAt(at - 1));
+            int end = at + token.length();
+            boolean endsClean = token.endsWith(".") || end == value.length() || !isNameChar(value.charAt(end));
+            if (startsClean && endsClean) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNameChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == ' ';
+    }
+
+    private static double estimate(ResourceArgs resource) {
+        return CREATE_SECONDS.getOrDefault(resource.type, DEFAULT_SECONDS);
+    }
+}
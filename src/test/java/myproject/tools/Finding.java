@@ -0,0 +1,40 @@
+package myproject.tools;
+
+/**
+ * One performance problem a {@link PerformanceRule} found on a registered resource.
+ */
+public final class Finding {
+
+    private final String rule;
+    private final Severity severity;
+    private final String resource;
+    private final String message;
+
+    public Finding(String rule, Severity severity, String resource, String message) {
+        this.rule = rule;
+        this.severity = severity;
+        this.resource = resource;
+        this.message = message;
+    }
+
+    public String rule() {
+        return rule;
+    }
+
+    public Severity severity() {
+        return severity;
+    }
+
+    public String resource() {
+        return resource;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-7s %-24s %-40s %s", severity, rule, resource, message);
+    }
+}
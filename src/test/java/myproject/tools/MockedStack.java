@@ -0,0 +1,178 @@
+package myproject.tools;
+
+import com.pulumi.test.Mocks;
+import com.pulumi.test.PulumiTest;
+import com.pulumi.test.TestOptions;
+import myproject.App;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs {@link App#stack} against in-memory Pulumi mocks, with no engine or cloud access,
+ * and records the inputs of every resource the program registers.
+ * <p>
+ * Stack configuration is read by the SDK from the {@code PULUMI_CONFIG} environment
+ * variable; {@link StackConfigFile} builds that value from a {@code Pulumi.<stack>.yaml}.
+ */
+public final class MockedStack implements Mocks {
+
+    public static final String PROJECT = "iac-pulumi";
+
+    private static final List<String> HOST_OUTPUTS = List.of("address", "endpoint", "configurationEndpoint",
+            "primaryEndpointAddress", "configurationEndpointAddress", "dnsName", "domainName");
+
+    private static final long IDLE_MILLIS = 200;
+    private static final long MAX_HOLD_MILLIS = 10_000;
+
+    private final int zoneCount;
+    private final List<ResourceArgs> resources = Collections.synchronizedList(new ArrayList<>());
+    private boolean holdZones;
+    private volatile int registeredBeforeZones = -1;
+
+    public MockedStack(int zoneCount) {
+        this.zoneCount = zoneCount;
+    }
+
+    /**
+     * Makes the availability zone lookup answer only once the program has stopped registering
+     * resources, so {@link #registeredBeforeZones} shows what does not wait for it.
+     */
+    public MockedStack holdZones() {
+        this.holdZones = true;
+        return this;
+    }
+
+    /**
+     * How many of the resources from the last {@link #run} were registered before the held
+     * availability zone lookup answered; -1 unless {@link #holdZones} is set.
+     */
+    public int registeredBeforeZones() {
+        return registeredBeforeZones;
+    }
+
+    /**
+     * Runs the program once and returns the resources it registered, in registration order.
+     */
+    public List<ResourceArgs> run() {
+        resources.clear();
+        registeredBeforeZones = -1;
+        try {
+            var result = PulumiTest.withMocks(this)
+                    .withOptions(new TestOptions(PROJECT, "mock", true))
+                    .runTest(App::stack);
+            if (result.exitCode() != 0) {
+                throw new IllegalStateException("Stack failed under mocks: " + result.errors());
+            }
+            synchronized (resources) {
+                return new ArrayList<>(resources);
+            }
+        } finally {
+            PulumiTest.cleanup();
+        }
+    }
+
+    /**
+     * Runs {@code main} with {@code --fork} in a new JVM configured from {@code stackFile}, since
+     * the SDK only reads the config from the environment. The named system properties are passed
+     * on; returns the exit code.
+     */
+    static int fork(Class<?> main, Path stackFile, List<String> properties) throws IOException, InterruptedException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path")));
+        for (String property : properties) {
+            String value = System.getProperty(property);
+            if (value != null) {
+                command.add("-D" + property + "=" + value);
+            }
+        }
+        command.add(main.getName());
+        command.add("--fork");
+        var process = new ProcessBuilder(command).inheritIO();
+        process.environment().put("PULUMI_CONFIG", StackConfigFile.load(stackFile).toPulumiConfigJson());
+        return process.start().waitFor();
+    }
+
+    /**
+     * Values the mocks hand out as outputs of {@code args} that no other resource produces: its
+     * id and the generated ARN and host names. Finding one in another resource's inputs means
+     * that resource consumed an output of this one.
+     */
+    static List<String> outputTokens(ResourceArgs args) {
+        List<String> tokens = new ArrayList<>();
+        tokens.add(args.name + "_id");
+        if (!args.inputs.containsKey("arn")) {
+            tokens.add("arn:aws:mock:" + args.type + ":" + args.name);
+        }
+        if (HOST_OUTPUTS.stream().anyMatch(key -> !args.inputs.containsKey(key))) {
+            tokens.add(args.name + ".mock.");
+        }
+        return tokens;
+    }
+
+    private void awaitIdle() {
+        long deadline = System.currentTimeMillis() + MAX_HOLD_MILLIS;
+        int seen = -1;
+        while (resources.size() != seen && System.currentTimeMillis() < deadline) {
+            seen = resources.size();
+            try {
+                Thread.sleep(IDLE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<ResourceResult> newResourceAsync(ResourceArgs args) {
+        resources.add(args);
+        Map<String, Object> state = new HashMap<>(args.inputs);
+        state.putIfAbsent("name", args.name);
+        state.putIfAbsent("arn", "arn:aws:mock:" + args.type + ":" + args.name);
+        state.putIfAbsent("address", args.name + ".mock.internal");
+        state.putIfAbsent("endpoint", args.name + ".mock.internal");
+        state.putIfAbsent("configurationEndpoint", args.name + ".mock.internal:8111");
+        state.putIfAbsent("primaryEndpointAddress", args.name + ".mock.internal");
+        state.putIfAbsent("configurationEndpointAddress", args.name + ".mock.internal");
+        state.putIfAbsent("dnsName", args.name + ".mock.elb.amazonaws.com");
+        state.putIfAbsent("zoneId", "ZMOCK");
+        state.putIfAbsent("domainName", args.name + ".mock.cloudfront.net");
+        state.putIfAbsent("hostedZoneId", "ZMOCK");
+        return CompletableFuture.completedFuture(ResourceResult.of(Optional.of(args.name + "_id"), state));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> callAsync(CallArgs args) {
+        switch (args.token) {
+            case "aws:index/getAvailabilityZones:getAvailabilityZones":
+                List<String> names = new ArrayList<>(zoneCount);
+                for (int i = 0; i < zoneCount; i++) {
+                    names.add("us-east-1" + (char) ('a' + i));
+                }
+                Map<String, Object> zones = Map.of("names", names, "zoneIds", names);
+                if (!holdZones) {
+                    return CompletableFuture.completedFuture(zones);
+                }
+                var held = new CompletableFuture<Map<String, Object>>();
+                var release = new Thread(() -> {
+                    awaitIdle();
+                    registeredBeforeZones = resources.size();
+                    held.complete(zones);
+                }, "zone-lookup");
+                release.setDaemon(true);
+                release.start();
+                return held;
+            case "aws:index/getRegion:getRegion":
+                return CompletableFuture.completedFuture(Map.of("name", "us-east-1"));
+            case "aws:elb/getServiceAccount:getServiceAccount":
+                return CompletableFuture.completedFuture(Map.of("arn", "arn:aws:iam::127311923021:root"));
+            case "aws:iam/getPolicyDocument:getPolicyDocument":
+                return CompletableFuture.completedFuture(Map.of("json", "{}"));
+            default:
+                return CompletableFuture.completedFuture(Map.of());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package myproject.tools;
+
+import com.pulumi.test.Mocks.ResourceArgs;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Runs the program under {@link MockedStack} with a real stack's config and checks every
+ * registered resource against the {@link PerformanceRule}s: {@link BuiltinRules}, rules
+ * registered through {@link ServiceLoader} and classes named in {@code lint.rules}.
+ * <p>
+ * System properties: {@code lint.stackFile} (default {@code Pulumi.dev.yaml}),
+ * {@code lint.failOn} (the lowest {@link Severity} that fails the run, default {@code ERROR};
+ * {@code NONE} only reports), {@code lint.skip} (rule ids to ignore) and {@code lint.rules}.
+ */
+public final class PerformanceLint {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--fork".equals(args[0])) {
+            System.exit(lint() ? 1 : 0);
+        }
+
+        Path stackFile = Path.of(System.getProperty("lint.stackFile", "Pulumi.dev.yaml"));
+        System.exit(MockedStack.fork(PerformanceLint.class, stackFile, List.of("lint.failOn", "lint.skip", "lint.rules")));
+    }
+
+    /**
+     * Runs inside the forked JVM; prints the findings and returns whether any reaches {@code lint.failOn}.
+     */
+    private static boolean lint() throws ReflectiveOperationException {
+        List<ResourceArgs> resources = new MockedStack(3).run();
+        String failOn = System.getProperty("lint.failOn", "ERROR");
+        Set<String> skip = Arrays.stream(System.getProperty("lint.skip", "").split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .collect(toSet());
+
+        List<Finding> findings = new ArrayList<>();
+        for (PerformanceRule rule : rules()) {
+            if (!skip.contains(rule.id())) {
+                findings.addAll(rule.check(resources));
+            }
+        }
+        findings.sort(Comparator.comparing(Finding::severity).reversed()
+                .thenComparing(Finding::rule)
+                .thenComparing(Finding::resource));
+
+        findings.forEach(System.out::println);
+        System.out.printf("%d findings over %d resources%n", findings.size(), resources.size());
+        if ("NONE".equals(failOn)) {
+            return false;
+        }
+        Severity threshold = Severity.valueOf(failOn);
+        return findings.stream().anyMatch(finding -> finding.severity().compareTo(threshold) >= 0);
+    }
+
+    private static List<PerformanceRule> rules() throws ReflectiveOperationException {
+        List<PerformanceRule> rules = new ArrayList<>(BuiltinRules.all());
+        ServiceLoader.load(PerformanceRule.class).forEach(rules::add);
+        for (String name : System.getProperty("lint.rules", "").split(",")) {
+            if (!name.isBlank()) {
+                rules.add((PerformanceRule) Class.forName(name.trim()).getDeclaredConstructor().newInstance());
+            }
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,20 @@
+package myproject.tools;
+
+import com.pulumi.test.Mocks.ResourceArgs;
+
+import java.util.List;
+
+/**
+ * A check over the resources the program registers under {@link MockedStack}. Rules see the
+ * whole graph, so they can relate resources, e.g. a table to its auto scaling target.
+ * <p>
+ * Besides {@link BuiltinRules}, {@link PerformanceLint} loads implementations listed in
+ * {@code META-INF/services/myproject.tools.PerformanceRule} on the classpath and the classes
+ * named in the {@code lint.rules} system property.
+ */
+public interface PerformanceRule {
+
+    String id();
+
+    List<Finding> check(List<ResourceArgs> resources);
+}
@@ -0,0 +1,10 @@
+package myproject.tools;
+
+/**
+ * How much a {@link Finding} is expected to hurt latency or throughput in production.
+ */
+public enum Severity {
+    INFO,
+    WARNING,
+    ERROR
+}
@@ -0,0 +1,139 @@
+package myproject.tools;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Offline benchmark for stack construction. For every combination of subnet count,
+ * AZ count and security-group port list sizes it forks a fresh JVM, runs the program
+ * under {@link MockedStack} and reports construction latency, allocation per run and
+ * the number of registered resources.
+ * <p>
+ * Parameters are system properties so the {@code benchmark} Maven profile can set them:
+ * {@code bench.stackFile}, {@code bench.subnets}, {@code bench.azs}, {@code bench.lbPorts},
+ * {@code bench.ec2Ports}, {@code bench.warmups}, {@code bench.iterations} and
+ * {@code bench.maxMillis}, which fails the run when any combination is slower on average.
+ */
+public final class StackBenchmark {
+
+    private static final String FORK = "--fork";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && FORK.equals(args[0])) {
+            measure(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+
+        Path stackFile = Path.of(System.getProperty("bench.stackFile", "Pulumi.dev.yaml"));
+        int[] subnets = intList("bench.subnets", "1,3,6");
+        int[] azs = intList("bench.azs", "3,6");
+        int[] lbPorts = intList("bench.lbPorts", "1,8");
+        int[] ec2Ports = intList("bench.ec2Ports", "2,16");
+        int warmups = Integer.getInteger("bench.warmups", 5);
+        int iterations = Integer.getInteger("bench.iterations", 20);
+        double maxMillis = Double.parseDouble(System.getProperty("bench.maxMillis", "0"));
+
+        System.out.printf("%-8s %-4s %-8s %-9s %10s %10s %12s %10s%n",
+                "subnets", "azs", "lbPorts", "ec2Ports", "mean(ms)", "p90(ms)", "alloc(MB)", "resources");
+        boolean regressed = false;
+        for (int subnetCount : subnets) {
+            for (int azCount : azs) {
+                // Each subnet needs its own zone, so the program rejects these combinations
+                if (subnetCount > azCount) {
+                    continue;
+                }
+                for (int lbPortCount : lbPorts) {
+                    for (int ec2PortCount : ec2Ports) {
+                        String config = StackConfigFile.load(stackFile)
+                                .with("num_of_subnets", String.valueOf(subnetCount))
+                                .with("allowedPortsForLB", ports(443, lbPortCount))
+                                .with("allowedPortsForEC2", ports(8080, ec2PortCount))
+                                .toPulumiConfigJson();
+                        String result = fork(config, azCount, warmups, iterations);
+                        String[] fields = result.trim().split(" ");
+                        double mean = Double.parseDouble(fields[0]);
+                        System.out.printf("%-8d %-4d %-8d %-9d %10.2f %10.2f %12.2f %10s%n",
+                                subnetCount, azCount, lbPortCount, ec2PortCount,
+                                mean, Double.parseDouble(fields[1]), Double.parseDouble(fields[2]), fields[3]);
+                        regressed |= maxMillis > 0 && mean > maxMillis;
+                    }
+                }
+            }
+        }
+        if (regressed) {
+            System.err.println("Stack construction exceeded bench.maxMillis=" + maxMillis);
+            System.exit(1);
+        }
+    }
+
+    private static String fork(String config, int azCount, int warmups, int iterations) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                StackBenchmark.class.getName(), FORK,
+                String.valueOf(azCount), String.valueOf(warmups), String.valueOf(iterations))
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        process.environment().put("PULUMI_CONFIG", config);
+        Process child = process.start();
+        String output = new String(child.getInputStream().readAllBytes());
+        if (child.waitFor() != 0) {
+            throw new IllegalStateException("Benchmark fork failed: " + output);
+        }
+        String[] lines = output.trim().split("\n");
+        return lines[lines.length - 1];
+    }
+
+    /**
+     * Runs inside the forked JVM; prints "meanMs p90Ms allocMbPerRun resources".
+     */
+    private static void measure(int azCount, int warmups, int iterations) {
+        var stack = new MockedStack(azCount);
+        for (int i = 0; i < warmups; i++) {
+            stack.run();
+        }
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        double[] millis = new double[iterations];
+        long allocated = 0;
+        int resources = 0;
+        for (int i = 0; i < iterations; i++) {
+            long bytesBefore = allocatedBytes(threads);
+            long start = System.nanoTime();
+            resources = stack.run().size();
+            millis[i] = (System.nanoTime() - start) / 1_000_000.0;
+            allocated += allocatedBytes(threads) - bytesBefore;
+        }
+
+        Arrays.sort(millis);
+        double mean = Arrays.stream(millis).average().orElse(0);
+        double p90 = millis[Math.min(millis.length - 1, (int) Math.ceil(millis.length * 0.9) - 1)];
+        System.out.printf("%.3f %.3f %.3f %d%n", mean, p90, allocated / (double) iterations / (1024 * 1024), resources);
+    }
+
+    // Pulumi completes outputs on pool threads, so allocation is summed across all live threads
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static int[] intList(String property, String defaults) {
+        return Arrays.stream(System.getProperty(property, defaults).split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    private static String ports(int first, int count) {
+        var joiner = new StringJoiner(",");
+        for (int i = 0; i < count; i++) {
+            joiner.add(String.valueOf(first + i));
+        }
+        return joiner.toString();
+    }
+}
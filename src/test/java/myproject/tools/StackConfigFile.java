@@ -0,0 +1,167 @@
+package myproject.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the {@code config:} block of a {@code Pulumi.<stack>.yaml} so offline tools can run
+ * the program with a real stack's settings, optionally overriding some keys. Values may be
+ * plain, single- or double-quoted scalars; {@code secure:} values cannot be decrypted offline
+ * and become a placeholder, and any other nested value is rejected.
+ */
+public final class StackConfigFile {
+
+    private static final String SECRET_PLACEHOLDER = "mock-secret";
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+
+    private StackConfigFile() {
+    }
+
+    /**
+     * Prints the {@code PULUMI_CONFIG} value for a stack file, for scripts that run the
+     * program outside the engine.
+     */
+    public static void main(String[] args) throws IOException {
+        System.out.println(load(Path.of(args.length > 0 ? args[0] : "Pulumi.dev.yaml")).toPulumiConfigJson());
+    }
+
+    public static StackConfigFile load(Path path) throws IOException {
+        var file = new StackConfigFile();
+        List<String> lines = Files.readAllLines(path);
+        boolean inConfig = false;
+        String pendingKey = null;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            int indent = line.length() - line.stripLeading().length();
+            if (indent == 0) {
+                inConfig = trimmed.equals("config:");
+                pendingKey = null;
+                continue;
+            }
+            if (!inConfig) {
+                continue;
+            }
+            String where = path + ":" + (i + 1);
+            if (indent > 2) {
+                // Only "key:" followed by a single "secure: ..." line is understood
+                if (pendingKey == null || !trimmed.startsWith("secure:")) {
+                    throw new IllegalArgumentException(where + ": nested config values are not supported");
+                }
+                file.values.put(pendingKey, SECRET_PLACEHOLDER);
+                pendingKey = null;
+                continue;
+            }
+            if (pendingKey != null) {
+                throw new IllegalArgumentException(path + ": config key '" + pendingKey + "' has no value");
+            }
+            // Keys never contain ": ", so the first one ends even a namespaced "aws:region" key
+            int colon = trimmed.indexOf(": ");
+            if (colon < 0 && trimmed.endsWith(":")) {
+                pendingKey = trimmed.substring(0, trimmed.length() - 1);
+                continue;
+            }
+            if (colon < 0) {
+                throw new IllegalArgumentException(where + ": expected 'key: value'");
+            }
+            file.values.put(trimmed.substring(0, colon), scalar(trimmed.substring(colon + 2).trim(), where));
+        }
+        if (pendingKey != null) {
+            throw new IllegalArgumentException(path + ": config key '" + pendingKey + "' has no value");
+        }
+
+        // The program zips the Lambda sources while it runs; offline runs package a placeholder
+        // handler under target/ when the sources are not checked out next to the stack file
+        String lambdaSourceDir = file.values.get("lambdaSourceDir");
+        if (lambdaSourceDir == null || !Files.isDirectory(Path.of(lambdaSourceDir))) {
+            Path mockSource = Files.createDirectories(Path.of("target", "mock-lambda-source"));
+            Path handler = mockSource.resolve("lambda.py");
+            if (!Files.exists(handler)) {
+                Files.writeString(handler, "def lambda_handler(event, context):\n    return None\n");
+            }
+            file.values.put("lambdaSourceDir", mockSource.toString());
+        }
+        file.values.computeIfPresent("lambdaLayerDir", (key, dir) -> Files.isDirectory(Path.of(dir)) ? dir : null);
+        return file;
+    }
+
+    /**
+     * The value of a YAML scalar: quotes removed and escapes resolved, or for a plain scalar
+     * everything before a " #" comment.
+     */
+    static String scalar(String value, String where) {
+        if (value.startsWith("'")) {
+            if (value.length() < 2 || !value.endsWith("'")) {
+                throw new IllegalArgumentException(where + ": unterminated single-quoted value");
+            }
+            return value.substring(1, value.length() - 1).replace("''", "'");
+        }
+        if (value.startsWith("\"")) {
+            var unquoted = new StringBuilder();
+            for (int i = 1; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    if (i != value.length() - 1) {
+                        throw new IllegalArgumentException(where + ": text after the closing quote");
+                    }
+                    return unquoted.toString();
+                }
+                if (c == '\\' && i + 1 < value.length()) {
+                    char escaped = value.charAt(++i);
+                    unquoted.append(escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped);
+                } else {
+                    unquoted.append(c);
+                }
+            }
+            throw new IllegalArgumentException(where + ": unterminated double-quoted value");
+        }
+        int comment = value.indexOf(" #");
+        return comment < 0 ? value : value.substring(0, comment).trim();
+    }
+
+    public StackConfigFile with(String key, String value) {
+        values.put(key, value);
+        return this;
+    }
+
+    /**
+     * Renders the config the way the engine passes it to the program in {@code PULUMI_CONFIG}:
+     * a JSON object keyed by fully qualified {@code namespace:key} names.
+     */
+    public String toPulumiConfigJson() {
+        var json = new StringBuilder("{");
+        for (var entry : values.entrySet()) {
+            String key = entry.getKey().contains(":") ? entry.getKey() : MockedStack.PROJECT + ":" + entry.getKey();
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            appendString(json, key);
+            json.append(':');
+            appendString(json, entry.getValue());
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < ' ') {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,102 @@
+package myproject.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Holds the availability zone lookup until the program stops registering resources, then
+ * checks which resources were registered while it was outstanding. The program runs in a
+ * forked JVM because the SDK reads the stack config from the environment.
+ */
+class ZoneLookupTest {
+
+    private static final String FORK = "--fork";
+
+    @Test
+    void onlySubnetsAndTheirDependentsWaitForTheZoneLookup() throws Exception {
+        Fork run = forkRun(3);
+        if (run.exitCode != 0) {
+            throw new IllegalStateException("Zone lookup fork failed: " + run.output);
+        }
+        List<String[]> registered = run.registered();
+        List<String> before = new ArrayList<>();
+        List<String> after = new ArrayList<>();
+        for (String[] resource : registered) {
+            (resource[0].equals("before") ? before : after).add(resource[1]);
+        }
+
+        assertFalse(after.isEmpty(), "The zone lookup was not held");
+        // Subnets take their zone from the lookup, so none can register before it answers
+        assertFalse(before.contains("aws:ec2/subnet:Subnet"), "A subnet registered before the zone lookup answered");
+        assertEquals(3 * 2, after.stream().filter("aws:ec2/subnet:Subnet"::equals).count());
+        // Resources that need neither a zone nor a subnet register while the lookup is outstanding
+        for (String type : List.of("aws:ec2/vpc:Vpc", "aws:ec2/internetGateway:InternetGateway",
+                "aws:ec2/securityGroup:SecurityGroup", "aws:sns/topic:Topic", "aws:dynamodb/table:Table")) {
+            assertTrue(before.contains(type), type + " waited for the zone lookup");
+            assertFalse(after.contains(type), type + " waited for the zone lookup");
+        }
+    }
+
+    @Test
+    void failsWhenThereAreFewerZonesThanSubnets() throws Exception {
+        Fork run = forkRun(2);
+
+        assertNotEquals(0, run.exitCode);
+        assertTrue(run.output.contains("num_of_subnets is 3 but region us-east-1 has only 2 availability zones"), run.output);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || !FORK.equals(args[0])) {
+            throw new IllegalArgumentException("Run by ZoneLookupTest in a forked JVM");
+        }
+        var stack = new MockedStack(Integer.parseInt(args[1])).holdZones();
+        var resources = stack.run();
+        int before = stack.registeredBeforeZones();
+        for (int i = 0; i < resources.size(); i++) {
+            System.out.println((i < before ? "before" : "after") + "|" + resources.get(i).type + "|" + resources.get(i).name);
+        }
+    }
+
+    private static Fork forkRun(int zoneCount) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        var process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                ZoneLookupTest.class.getName(), FORK, String.valueOf(zoneCount))
+                .redirectErrorStream(true);
+        // num_of_subnets is pinned so the subnet counts here do not follow the dev stack
+        process.environment().put("PULUMI_CONFIG", StackConfigFile.load(Path.of("Pulumi.dev.yaml"))
+                .with("num_of_subnets", "3")
+                .toPulumiConfigJson());
+        Process child = process.start();
+        String output = new String(child.getInputStream().readAllBytes());
+        return new Fork(child.waitFor(), output);
+    }
+
+    private static final class Fork {
+
+        final int exitCode;
+        final String output;
+
+        Fork(int exitCode, String output) {
+            this.exitCode = exitCode;
+            this.output = output;
+        }
+
+        List<String[]> registered() {
+            List<String[]> registered = new ArrayList<>();
+            for (String line : output.split("\n")) {
+                if (line.startsWith("before|") || line.startsWith("after|")) {
+                    registered.add(line.split("\\|", 3));
+                }
+            }
+            return registered;
+        }
+    }
+}